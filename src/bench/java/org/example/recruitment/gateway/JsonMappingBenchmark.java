@@ -0,0 +1,101 @@
+package org.example.recruitment.gateway;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import interview.InterviewServiceOuterClass.Slot;
+import job.JobServiceOuterClass.Application;
+import job.JobServiceOuterClass.Job;
+import job.JobServiceOuterClass.ScreeningStatus;
+import job.JobServiceOuterClass.Skill;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The gateway's protobuf-to-JSON mapping for one page of {@code items} jobs,
+ * applications or slots, written the way the routes write them: straight to a
+ * JsonGenerator. {@code applicationsAsMaps} is the other path some routes
+ * still take, a Map per message serialized by Jackson's ObjectMapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonMappingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int items;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+    private List<Job> jobs;
+    private List<Application> applications;
+    private List<Slot> slots;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jobs = new ArrayList<>();
+        applications = new ArrayList<>();
+        slots = new ArrayList<>();
+        for (int i = 1; i <= items; i++) {
+            jobs.add(Job.newBuilder()
+                    .setId(i)
+                    .setTitle("Backend engineer " + i)
+                    .setCompany("Company " + i % 50)
+                    .setDescription("Build and run the gRPC services behind our hiring platform. ".repeat(4))
+                    .addSkills(Skill.newBuilder().setKeyword("java").setWeight(3))
+                    .addSkills(Skill.newBuilder().setKeyword("grpc").setWeight(2))
+                    .addSkills(Skill.newBuilder().setKeyword("distributed systems").setWeight(1))
+                    .build());
+            applications.add(Application.newBuilder()
+                    .setApplicationId(i)
+                    .setJobId(1 + i % 50)
+                    .setCandidateName("Candidate " + i)
+                    .setCandidateEmail("candidate" + i + "@example.com")
+                    .setScreeningScore(i % 100)
+                    .setScreeningFeedback("Matched java, grpc")
+                    .setStatus(ScreeningStatus.SCREENED)
+                    .build());
+            slots.add(Slot.newBuilder()
+                    .setSlotId("default@" + (29_000_000 + 30L * i))
+                    .setTime("2026-10-17 09:30")
+                    .setInterviewerId("default")
+                    .setStartEpochMinute(29_000_000 + 30L * i)
+                    .setDurationMinutes(30)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public int jobsPage() throws IOException {
+        out.reset();
+        ServiceBridge.writePage(out, "jobs", jobs, items, ServiceBridge::writeJob);
+        return out.size();
+    }
+
+    @Benchmark
+    public int applicationsPage() throws IOException {
+        out.reset();
+        ServiceBridge.writePage(out, "applications", applications, items, ServiceBridge::writeApplication);
+        return out.size();
+    }
+
+    @Benchmark
+    public int slotsPage() throws IOException {
+        out.reset();
+        ServiceBridge.writePage(out, "slots", slots, items, ServiceBridge::writeSlot);
+        return out.size();
+    }
+
+    @Benchmark
+    public int applicationsAsMaps() throws IOException {
+        out.reset();
+        mapper.writeValue(out, applications.stream().map(ServiceBridge::applicationToMap).toList());
+        return out.size();
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.recruitment.interview;
+
+import interview.InterviewServiceGrpc;
+import interview.InterviewServiceOuterClass.InterviewBatchRequest;
+import interview.InterviewServiceOuterClass.InterviewRequest;
+import interview.InterviewServiceOuterClass.Interviewer;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Books {@code batchSize} fresh slots per operation over a loopback gRPC
+ * channel, either as that many ScheduleInterview calls or as one
+ * ScheduleInterviewBatch call. Scores are operations (cohorts) per second;
+ * multiply by batchSize for bookings per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ScheduleBatchBenchmark {
+
+    private static final long DAYS_PER_INTERVIEWER = 30;
+
+    @Param({"10", "100"})
+    int batchSize;
+
+    private Server server;
+    private ManagedChannel channel;
+    private InterviewServiceGrpc.InterviewServiceBlockingStub stub;
+
+    private int interviewers;
+    private String interviewerId;
+    private long nextMinute;
+    private long endMinute;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        server = ServerBuilder.forPort(0).addService(new InterviewServiceImpl(false)).build().start();
+        channel = ManagedChannelBuilder.forAddress("localhost", server.getPort()).usePlaintext().build();
+        stub = InterviewServiceGrpc.newBlockingStub(channel);
+        newInterviewer();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public int unaryLoop() {
+        int booked = 0;
+        for (InterviewRequest request : nextRequests()) {
+            if (stub.scheduleInterview(request).getSuccess()) {
+                booked++;
+            }
+        }
+        return booked;
+    }
+
+    @Benchmark
+    public int batchBestEffort() {
+        return stub.scheduleInterviewBatch(InterviewBatchRequest.newBuilder()
+                .addAllRequests(nextRequests())
+                .build()).getBooked();
+    }
+
+    @Benchmark
+    public int batchAtomic() {
+        return stub.scheduleInterviewBatch(InterviewBatchRequest.newBuilder()
+                .addAllRequests(nextRequests())
+                .setAtomic(true)
+                .build()).getBooked();
+    }
+
+    // Consecutive one-minute slots, moving on to a new interviewer once one runs out
+    private List<InterviewRequest> nextRequests() {
+        if (nextMinute + batchSize > endMinute) {
+            newInterviewer();
+        }
+        List<InterviewRequest> requests = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            requests.add(InterviewRequest.newBuilder()
+                    .setCandidateName("Candidate " + i)
+                    .setCandidateEmail("candidate" + i + "@example.com")
+                    .setJobId(1)
+                    .setSlotId(interviewerId + "@" + nextMinute++)
+                    .build());
+        }
+        return requests;
+    }
+
+    private void newInterviewer() {
+        interviewerId = "bench-" + interviewers++;
+        stub.addInterviewer(Interviewer.newBuilder()
+                .setInterviewerId(interviewerId)
+                .setDayStartMinute(0)
+                .setDayEndMinute(24 * 60)
+                .setSlotMinutes(1)
+                .setZoneId("UTC")
+                .setIncludeWeekends(true)
+                .build());
+        nextMinute = (SlotCalendar.nowMinute() / (24 * 60) + 1) * 24 * 60;
+        endMinute = nextMinute + DAYS_PER_INTERVIEWER * 24 * 60;
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.recruitment.interview;
+
+import interview.InterviewServiceOuterClass.InterviewRequest;
+import interview.InterviewServiceOuterClass.InterviewResponse;
+import interview.InterviewServiceOuterClass.Interviewer;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ScheduleInterview called straight on the service from four threads ("-t" to
+ * change), with no transport in between. Requests take slots from one shared
+ * sequence. With {@code contenders} above 1, that many requests in a row go for
+ * the same slot: one wins the reservation and the rest are refused as already
+ * booked. Booked and refused requests are reported per second next to the
+ * total, from a fresh calendar every iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SlotBookingBenchmark {
+
+    private static final int INTERVIEWERS = 200;
+    private static final long SLOTS_PER_INTERVIEWER = 30L * 24 * 60;
+
+    @Param({"1", "4"})
+    int contenders;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private InterviewServiceImpl service;
+    private long firstMinute;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        service = new InterviewServiceImpl(false);
+        for (int i = 0; i < INTERVIEWERS; i++) {
+            service.addInterviewer(Interviewer.newBuilder()
+                    .setInterviewerId("bench-" + i)
+                    .setDayStartMinute(0)
+                    .setDayEndMinute(24 * 60)
+                    .setSlotMinutes(1)
+                    .setZoneId("UTC")
+                    .setIncludeWeekends(true)
+                    .build(), new Outcome());
+        }
+        firstMinute = (SlotCalendar.nowMinute() / (24 * 60) + 1) * 24 * 60;
+        sequence.set(0);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcome implements StreamObserver<InterviewResponse> {
+        public long booked;
+        public long refused;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            booked = 0;
+            refused = 0;
+        }
+
+        @Override
+        public void onNext(InterviewResponse response) {
+            if (response.getSuccess()) {
+                booked++;
+            } else {
+                refused++;
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            throw new IllegalStateException(t);
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+
+    @Benchmark
+    public void schedule(Outcome outcome) {
+        long slot = sequence.getAndIncrement() / contenders;
+        if (slot >= INTERVIEWERS * SLOTS_PER_INTERVIEWER) {
+            throw new IllegalStateException("Ran out of slots; raise INTERVIEWERS");
+        }
+        service.scheduleInterview(InterviewRequest.newBuilder()
+                .setCandidateName("Candidate")
+                .setCandidateEmail("candidate@example.com")
+                .setJobId(1)
+                .setSlotId("bench-" + slot / SLOTS_PER_INTERVIEWER + "@" + (firstMinute + slot % SLOTS_PER_INTERVIEWER))
+                .build(), outcome);
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.recruitment.job;
+
+import job.JobServiceOuterClass.Job;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries an index of 50k jobs with about 1.7M postings. Words are drawn from a
+ * skewed 5000-word vocabulary, so common terms have postings for a large share
+ * of all jobs, as words like "engineer" would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JobSearchBenchmark {
+
+    private static final int JOBS = 50_000;
+    private static final int VOCABULARY = 5000;
+
+    @Param({"w3", "w3 w40", "w12 w250 w1700", "w1"})
+    String query;
+
+    private JobSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        index = new JobSearchIndex();
+        for (int id = 1; id <= JOBS; id++) {
+            index.add(Job.newBuilder().setId(id)
+                    .setTitle(words(random, 4))
+                    .setCompany("company" + random.nextInt(2000))
+                    .setDescription(words(random, 30))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<JobSearchIndex.Hit> search() {
+        return index.search(query, 20);
+    }
+
+    // Skewed toward low word numbers, roughly like natural text
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            double u = random.nextDouble();
+            text.append('w').append((int) (VOCABULARY * u * u * u)).append(' ');
+        }
+        return text.toString();
+    }
+}
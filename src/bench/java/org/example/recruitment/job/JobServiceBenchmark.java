@@ -0,0 +1,237 @@
+package org.example.recruitment.job;
+
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import job.JobServiceOuterClass.ApplicationFilter;
+import job.JobServiceOuterClass.ApplicationList;
+import job.JobServiceOuterClass.ApplicationRequest;
+import job.JobServiceOuterClass.ApplicationResponse;
+import job.JobServiceOuterClass.Job;
+import job.JobServiceOuterClass.JobResponse;
+import job.JobServiceOuterClass.Skill;
+import org.example.recruitment.registry.ChannelManager;
+import org.example.recruitment.registry.DiscoveryCache;
+import org.openjdk.jmh.annotations.*;
+import screening.CandidateScreeningServiceGrpc;
+import screening.CandidateScreeningServiceOuterClass.ResumeRequest;
+import screening.CandidateScreeningServiceOuterClass.ScreeningResult;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The job service's application path against a store already holding
+ * {@code applications} applications, spread over 100 jobs. Persistence is off,
+ * so the event log acknowledges at once. Screening goes to a stand-in service
+ * in this JVM that gives every resume a fixed score without reading it.
+ *
+ * <p>{@code applyForJob} submits a new candidate per call. The store grows as
+ * it runs, so it is rebuilt for every iteration. Totals of submitted and
+ * refused (screening queue full) applications are reported next to it.
+ * Screening still runs alongside, streaming each resume to the stand-in, so
+ * on a machine with few cores its share of the CPU shows up in the apply time.
+ *
+ * <p>The list benchmarks read the first page of one job's applications, a page
+ * from the middle of them, and one candidate's applications by email.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g", "-Drecruitment.dataDir="})
+public class JobServiceBenchmark {
+
+    private static final int JOBS = 100;
+    private static final String RESUME = ("Senior Java engineer, eight years building gRPC services.\n"
+            + "Designed Kafka pipelines and Postgres schemas for high-volume systems.\n"
+            + "Led a team of five; on-call for payment services with strict latency targets.\n").repeat(8);
+
+    @Param({"10000", "100000"})
+    int applications;
+
+    private Server screening;
+    private final AtomicLong screened = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void startScreening() throws Exception {
+        screening = InProcessServerBuilder.forName("CandidateScreeningService")
+                .directExecutor()
+                .addService(new FixedScoreScreening(screened))
+                .build()
+                .start();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopScreening() throws InterruptedException {
+        screening.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Filled {
+        JobServiceImpl service;
+        int midCursor;
+
+        @Setup(Level.Trial)
+        public void fill(JobServiceBenchmark bench) throws InterruptedException {
+            service = bench.populate();
+            // Applications go to jobs round robin, so job 1 has every JOBS-th id
+            midCursor = bench.applications / 2 / JOBS * JOBS;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Growing {
+        JobServiceImpl service;
+        final AtomicInteger next = new AtomicInteger();
+
+        @Setup(Level.Iteration)
+        public void fill(JobServiceBenchmark bench) throws InterruptedException {
+            service = bench.populate();
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcome {
+        public long submitted;
+        public long refused;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            submitted = 0;
+            refused = 0;
+        }
+    }
+
+    @Benchmark
+    public ApplicationResponse applyForJob(Growing growing, Outcome outcome) {
+        int n = growing.next.getAndIncrement();
+        ApplicationResponse response = apply(growing.service, n % JOBS + 1, "new" + n + "@example.com");
+        if (response.getSuccess()) {
+            outcome.submitted++;
+        } else {
+            outcome.refused++;
+        }
+        return response;
+    }
+
+    @Benchmark
+    public ApplicationList listFirstPage(Filled filled) {
+        return list(filled.service, ApplicationFilter.newBuilder().setJobId(1).build());
+    }
+
+    @Benchmark
+    public ApplicationList listMiddlePage(Filled filled) {
+        return list(filled.service, ApplicationFilter.newBuilder().setJobId(1).setCursor(filled.midCursor).build());
+    }
+
+    @Benchmark
+    public ApplicationList listByEmail(Filled filled) {
+        return list(filled.service, ApplicationFilter.newBuilder()
+                .setCandidateEmail("seed" + filled.midCursor + "@example.com").build());
+    }
+
+    private JobServiceImpl populate() throws InterruptedException {
+        // Never asked: the only service it would look up is served in process
+        DiscoveryCache discovery = new DiscoveryCache(InProcessChannelBuilder.forName("registry").build(),
+                Duration.ofMinutes(1));
+        JobServiceImpl service = new JobServiceImpl(new ChannelManager(discovery, Set.of("CandidateScreeningService")));
+        for (int i = 0; i < JOBS; i++) {
+            Reply<JobResponse> reply = new Reply<>();
+            service.createJob(Job.newBuilder()
+                    .setTitle("Backend engineer " + i)
+                    .setCompany("Company " + i % 10)
+                    .addSkills(Skill.newBuilder().setKeyword("java").setWeight(3))
+                    .addSkills(Skill.newBuilder().setKeyword("grpc").setWeight(2))
+                    .build(), reply);
+            reply.get();
+        }
+        long before = screened.get();
+        for (int i = 0; i < applications; i++) {
+            // Only refused when the screening queue is full, so let it drain
+            while (!apply(service, i % JOBS + 1, "seed" + i + "@example.com").getSuccess()) {
+                Thread.sleep(1);
+            }
+        }
+        while (screened.get() - before < applications) {
+            Thread.sleep(10);
+        }
+        return service;
+    }
+
+    private static ApplicationResponse apply(JobServiceImpl service, int jobId, String email) {
+        Reply<ApplicationResponse> reply = new Reply<>();
+        service.applyForJob(ApplicationRequest.newBuilder()
+                .setJobId(jobId)
+                .setCandidateName("Candidate")
+                .setCandidateEmail(email)
+                .setResumeText(RESUME)
+                .build(), reply);
+        return reply.get();
+    }
+
+    private static ApplicationList list(JobServiceImpl service, ApplicationFilter filter) {
+        Reply<ApplicationList> reply = new Reply<>();
+        service.listApplications(filter, reply);
+        return reply.get();
+    }
+
+    // Without persistence every reply is sent before the call returns
+    private static final class Reply<T> implements StreamObserver<T> {
+        private T value;
+
+        T get() {
+            if (value == null) {
+                throw new IllegalStateException("No reply was sent");
+            }
+            return value;
+        }
+
+        @Override public void onNext(T value) { this.value = value; }
+        @Override public void onError(Throwable t) { throw new IllegalStateException(t); }
+        @Override public void onCompleted() { }
+    }
+
+    private static final class FixedScoreScreening extends CandidateScreeningServiceGrpc.CandidateScreeningServiceImplBase {
+        private final AtomicLong screened;
+
+        FixedScoreScreening(AtomicLong screened) {
+            this.screened = screened;
+        }
+
+        @Override
+        public StreamObserver<ResumeRequest> submitResume(StreamObserver<ScreeningResult> responseObserver) {
+            return new StreamObserver<>() {
+                String email;
+
+                @Override
+                public void onNext(ResumeRequest chunk) {
+                    if (email == null) {
+                        email = chunk.getCandidateEmail();
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    responseObserver.onNext(ScreeningResult.newBuilder()
+                            .setCandidateEmail(email)
+                            .setScore(50)
+                            .setFeedback("Screened")
+                            .build());
+                    responseObserver.onCompleted();
+                    screened.incrementAndGet();
+                }
+            };
+        }
+    }
+}
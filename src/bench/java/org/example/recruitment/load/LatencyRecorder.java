@@ -0,0 +1,67 @@
+package org.example.recruitment.load;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Every latency of one route in one stage, kept exactly; a stage of a few
+ * minutes at a few thousand requests a second is only a few MB. Outcomes are
+ * counted apart: a reply the route treats as refused ({@code "success":false})
+ * still has its latency recorded, a transport or HTTP error does not.
+ */
+final class LatencyRecorder {
+
+    private long[] nanos = new long[1024];
+    private int count;
+    private long errors;
+    private long refused;
+
+    synchronized void ok(long latencyNanos) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = latencyNanos;
+    }
+
+    synchronized void refused(long latencyNanos) {
+        refused++;
+        ok(latencyNanos);
+    }
+
+    synchronized void error() {
+        errors++;
+    }
+
+    synchronized Map<String, Object> summary(double seconds) {
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("completed", count);
+        summary.put("refused", refused);
+        summary.put("errors", errors);
+        summary.put("throughput", round(count / seconds));
+        summary.put("p50Ms", millis(percentile(sorted, 0.50)));
+        summary.put("p99Ms", millis(percentile(sorted, 0.99)));
+        summary.put("p999Ms", millis(percentile(sorted, 0.999)));
+        summary.put("maxMs", millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+        return summary;
+    }
+
+    // Nearest rank, so p999 of fewer than a thousand samples is the maximum
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,347 @@
+package org.example.recruitment.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.recruitment.load.Workload.Route;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load against the gateway, open model: requests arrive at a fixed
+ * average rate (Poisson, from a seeded Random) whether or not earlier ones have
+ * been answered, the way independent users arrive. Each stage offers one rate
+ * from {@code --rates} for {@code --duration} seconds and reports, per route,
+ * throughput and the p50/p99/p999 latency; the stages climb until the topology
+ * stops keeping up.
+ *
+ * <p>Latency runs from when a request was due to be sent, not from when it
+ * went out, so a stalled generator or a full connection pool counts against
+ * the system instead of quietly lowering the offered rate.
+ *
+ * <p>Unless {@code --target} names a running gateway, MainLauncher is started
+ * in a child JVM in a fresh working directory, so it starts with no data, and
+ * stopped at the end. From the project root:
+ * <pre>
+ * mvn -Pbench compile exec:exec@load -Dload="--rates 50,100,200,400 --duration 30"
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    private static final String USAGE = """
+            Options:
+              --rates 50,100,200,400   arrivals per second, one stage each
+              --duration 30            seconds measured per stage
+              --warmup 10              seconds at the first rate before measuring
+              --mix jobs=30,apply=20,slots=25,schedule=10,ws-schedule=10,ws-screening=5
+              --slo-p99-ms 500         a stage is sustained while every route's p99 is within this
+              --max-in-flight 4096     arrivals beyond this many outstanding count as errors
+              --ws-connections 8       booking sockets shared by ws-schedule arrivals
+              --target http://host:8080  use a running gateway instead of starting one
+              --jvm "-Xmx2g -Drecruitment.threads=virtual"  options for the started topology
+              --json file              also write the results as JSON
+              --seed 1""";
+
+    private static final Path LOG = Path.of("launcher.log");
+
+    private double[] rates = {50, 100, 200, 400};
+    private int duration = 30;
+    private int warmup = 10;
+    private final Map<Route, Integer> mix = new EnumMap<>(Route.class);
+    private double sloP99Ms = 500;
+    private int maxInFlight = 4096;
+    private int wsConnections = 8;
+    private URI target;
+    private String jvmOptions = "";
+    private String jsonFile;
+    private long seed = 1;
+
+    public static void main(String[] args) throws Exception {
+        LoadGenerator generator = new LoadGenerator();
+        try {
+            generator.parse(args);
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        generator.run();
+        System.exit(0);
+    }
+
+    private void parse(String[] args) {
+        mix.putAll(Map.of(Route.JOBS, 30, Route.APPLY, 20, Route.SLOTS, 25,
+                Route.SCHEDULE, 10, Route.WS_SCHEDULE, 10, Route.WS_SCREENING, 5));
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--help")) {
+                throw new IllegalArgumentException("Usage: LoadGenerator [options]");
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--rates" -> rates = Arrays.stream(value.split(",")).mapToDouble(Double::parseDouble).toArray();
+                case "--duration" -> duration = Integer.parseInt(value);
+                case "--warmup" -> warmup = Integer.parseInt(value);
+                case "--mix" -> {
+                    mix.clear();
+                    for (String part : value.split(",")) {
+                        String[] weight = part.split("=");
+                        mix.put(Route.of(weight[0].trim()), Integer.parseInt(weight[1].trim()));
+                    }
+                }
+                case "--slo-p99-ms" -> sloP99Ms = Double.parseDouble(value);
+                case "--max-in-flight" -> maxInFlight = Integer.parseInt(value);
+                case "--ws-connections" -> wsConnections = Integer.parseInt(value);
+                case "--target" -> target = URI.create(value.endsWith("/") ? value : value + "/");
+                case "--jvm" -> jvmOptions = value;
+                case "--json" -> jsonFile = value;
+                case "--seed" -> seed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+        mix.values().removeIf(weight -> weight <= 0);
+        if (mix.isEmpty() || rates.length == 0) {
+            throw new IllegalArgumentException("Nothing to send");
+        }
+    }
+
+    private void run() throws Exception {
+        Process launcher = target == null ? startLauncher() : null;
+        URI base = target == null ? URI.create("http://localhost:8080/") : target;
+        try {
+            awaitGateway(base, launcher);
+            String runId = "load-" + Long.toString(System.currentTimeMillis(), 36);
+            Workload workload = new Workload(base, runId);
+            workload.prepare(bookings(), mix.containsKey(Route.WS_SCHEDULE) ? wsConnections : 0);
+            Map<String, Integer> weights = new LinkedHashMap<>();
+            mix.forEach((route, weight) -> weights.put(route.label, weight));
+            System.out.printf("Run %s against %s, mix %s%n", runId, base, weights);
+            try {
+                if (warmup > 0) {
+                    System.out.printf("Warming up at %.0f req/s for %ds%n", rates[0], warmup);
+                    stage(workload, rates[0], warmup, new Random(seed - 1));
+                }
+                List<Map<String, Object>> stages = new ArrayList<>();
+                Random random = new Random(seed);
+                for (double rate : rates) {
+                    Map<String, Object> stage = stage(workload, rate, duration, random);
+                    print(stage);
+                    stages.add(stage);
+                }
+                summarize(stages);
+                if (jsonFile != null) {
+                    Map<String, Object> results = new LinkedHashMap<>();
+                    results.put("runId", runId);
+                    results.put("target", base.toString());
+                    results.put("mix", weights);
+                    results.put("durationSeconds", duration);
+                    results.put("sloP99Ms", sloP99Ms);
+                    results.put("stages", stages);
+                    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(jsonFile), results);
+                    System.out.println("Results written to " + jsonFile);
+                }
+            } finally {
+                workload.close();
+            }
+        } finally {
+            if (launcher != null) {
+                launcher.destroy();
+                launcher.waitFor(30, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    // Every slot booked over the whole run, so each booking gets a slot of its own
+    private long bookings() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int booking = mix.getOrDefault(Route.SCHEDULE, 0) + mix.getOrDefault(Route.WS_SCHEDULE, 0);
+        double arrivals = rates[0] * warmup + Arrays.stream(rates).sum() * duration;
+        // Poisson arrivals run over the mean; leave room for that
+        return (long) (arrivals * booking / total * 1.2) + 1000;
+    }
+
+    /** Offers {@code rate} requests a second for {@code seconds}, then waits for every one of them. */
+    private Map<String, Object> stage(Workload workload, double rate, int seconds, Random random)
+            throws InterruptedException {
+        Map<Route, LatencyRecorder> recorders = new EnumMap<>(Route.class);
+        Map<Route, Long> sent = new EnumMap<>(Route.class);
+        mix.keySet().forEach(route -> {
+            recorders.put(route, new LatencyRecorder());
+            sent.put(route, 0L);
+        });
+        Route[] routes = mix.keySet().toArray(Route[]::new);
+        int[] cumulative = new int[routes.length];
+        for (int i = 0, sum = 0; i < routes.length; i++) {
+            cumulative[i] = sum += mix.get(routes[i]);
+        }
+
+        AtomicInteger inFlight = new AtomicInteger();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long due = start;
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (true) {
+                due += (long) (-Math.log(1 - random.nextDouble()) / rate * 1e9);
+                if (due >= end) {
+                    break;
+                }
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                int pick = random.nextInt(cumulative[cumulative.length - 1]);
+                int r = 0;
+                while (pick >= cumulative[r]) {
+                    r++;
+                }
+                Route route = routes[r];
+                LatencyRecorder recorder = recorders.get(route);
+                sent.merge(route, 1L, Long::sum);
+                if (inFlight.get() >= maxInFlight) {
+                    recorder.error();
+                    continue;
+                }
+                inFlight.incrementAndGet();
+                long intended = due;
+                requests.execute(() -> {
+                    try {
+                        workload.run(route, intended, recorder);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+            // Closing the executor waits for the stragglers; they belong to this stage
+        }
+        // Includes the drain, so a backlog the stage leaves behind shows as lower throughput
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        Map<String, Object> stage = new LinkedHashMap<>();
+        stage.put("offered", rate);
+        Map<String, Object> byRoute = new LinkedHashMap<>();
+        long total = 0;
+        long completed = 0;
+        long errors = 0;
+        for (Route route : routes) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("sent", sent.get(route));
+            summary.putAll(recorders.get(route).summary(elapsed));
+            byRoute.put(route.label, summary);
+            total += sent.get(route);
+            completed += ((Number) summary.get("completed")).longValue();
+            errors += ((Number) summary.get("errors")).longValue();
+        }
+        stage.put("sent", total);
+        stage.put("achieved", Math.round(completed / elapsed * 100) / 100.0);
+        stage.put("errors", errors);
+        stage.put("routes", byRoute);
+        return stage;
+    }
+
+    private void print(Map<String, Object> stage) {
+        System.out.printf("%nOffered %.0f req/s: %s sent, %.2f req/s completed, %s errors%n",
+                (double) stage.get("offered"), stage.get("sent"), (double) stage.get("achieved"), stage.get("errors"));
+        System.out.printf("  %-13s %7s %7s %7s %7s %9s %9s %9s %9s %9s%n",
+                "route", "sent", "ok", "refused", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        routes(stage).forEach((route, s) -> System.out.printf(
+                "  %-13s %7s %7d %7s %7s %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                route, s.get("sent"), ((Number) s.get("completed")).longValue() - ((Number) s.get("refused")).longValue(),
+                s.get("refused"), s.get("errors"), s.get("throughput"),
+                s.get("p50Ms"), s.get("p99Ms"), s.get("p999Ms"), s.get("maxMs")));
+    }
+
+    // Sustained: nearly all of the offered rate completed, next to no errors, every p99 within the SLO
+    private void summarize(List<Map<String, Object>> stages) {
+        Double sustained = null;
+        Double saturated = null;
+        for (Map<String, Object> stage : stages) {
+            double offered = (double) stage.get("offered");
+            boolean kept = (double) stage.get("achieved") >= offered * 0.95
+                    && (long) stage.get("errors") <= (long) stage.get("sent") / 100
+                    && routes(stage).values().stream().allMatch(s -> (double) s.get("p99Ms") <= sloP99Ms);
+            stage.put("sustained", kept);
+            if (kept && saturated == null) {
+                sustained = offered;
+            } else if (!kept && saturated == null) {
+                saturated = offered;
+            }
+        }
+        System.out.println();
+        if (saturated == null) {
+            System.out.printf("Sustained every stage up to %.0f req/s (p99 SLO %.0f ms); offer more to find the limit%n",
+                    sustained, sloP99Ms);
+        } else if (sustained == null) {
+            System.out.printf("Saturated already at %.0f req/s (p99 SLO %.0f ms)%n", saturated, sloP99Ms);
+        } else {
+            System.out.printf("Sustained up to %.0f req/s, saturated at %.0f req/s (p99 SLO %.0f ms)%n",
+                    sustained, saturated, sloP99Ms);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Map<String, Object>> routes(Map<String, Object> stage) {
+        return (Map<String, Map<String, Object>>) stage.get("routes");
+    }
+
+    private Process startLauncher() throws Exception {
+        Path dir = Files.createTempDirectory("recruitment-load");
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        for (String option : jvmOptions.trim().split("\\s+")) {
+            if (!option.isEmpty()) {
+                command.add(option);
+            }
+        }
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), "org.example.recruitment.MainLauncher"));
+        Process launcher = new ProcessBuilder(command)
+                .directory(dir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(dir.resolve(LOG).toFile())
+                .start();
+        Runtime.getRuntime().addShutdownHook(new Thread(launcher::destroy));
+        System.out.println("Started MainLauncher in " + dir + ", output in " + LOG);
+        return launcher;
+    }
+
+    // The routes are registered after the server starts, so wait for a 200 rather than any answer
+    private static void awaitGateway(URI base, Process launcher) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (System.nanoTime() < deadline) {
+            if (launcher != null && !launcher.isAlive()) {
+                throw new IllegalStateException("MainLauncher exited with " + launcher.exitValue());
+            }
+            try {
+                HttpResponse<Void> response = client.send(HttpRequest.newBuilder(base.resolve("/jobs")).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return;
+                }
+            } catch (java.io.IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(250);
+        }
+        throw new IllegalStateException("Gateway at " + base + " did not come up");
+    }
+}
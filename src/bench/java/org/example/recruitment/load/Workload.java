@@ -0,0 +1,313 @@
+package org.example.recruitment.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * What one arrival of each route does against the gateway, and the data it
+ * needs: jobs to apply to, and interviewers whose slots are booked one by one
+ * so no two bookings collide. Everything created is named after the run, so
+ * repeated runs against one topology don't trip over each other.
+ */
+final class Workload {
+
+    enum Route {
+        JOBS("jobs"), APPLY("apply"), SLOTS("slots"), SCHEDULE("schedule"),
+        WS_SCHEDULE("ws-schedule"), WS_SCREENING("ws-screening");
+
+        final String label;
+
+        Route(String label) {
+            this.label = label;
+        }
+
+        static Route of(String label) {
+            for (Route route : values()) {
+                if (route.label.equals(label)) {
+                    return route;
+                }
+            }
+            throw new IllegalArgumentException("Unknown route " + label);
+        }
+    }
+
+    private static final int JOBS = 20;
+    private static final long SLOTS_PER_INTERVIEWER = 30L * 24 * 60;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] RESUME_LINES = {
+            "Senior Java engineer with eight years building gRPC services and REST gateways.",
+            "Designed Kafka pipelines and Postgres schemas for high-volume hiring systems.",
+            "Led a team of five; on call for services with strict latency targets.",
+            "Comfortable with Kubernetes, distributed tracing and capacity planning.",
+            "Mentored juniors, ran design reviews and owned the release process.",
+    };
+
+    private final URI base;
+    private final String runId;
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ObjectMapper json = new ObjectMapper();
+    private final List<Integer> jobIds = new ArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong nextSlot = new AtomicLong();
+    private final List<ScheduleSocket> scheduleSockets = new ArrayList<>();
+    private long firstMinute;
+
+    Workload(URI base, String runId) {
+        this.base = base;
+        this.runId = runId;
+    }
+
+    /** Creates the jobs, enough interviewers for {@code bookings} slots, and the booking sockets. */
+    void prepare(long bookings, int sockets) throws Exception {
+        for (int i = 0; i < JOBS; i++) {
+            JsonNode reply = post("/jobs", Map.of(
+                    "title", "Backend engineer " + i,
+                    "company", "Load " + runId,
+                    "description", "Build the services behind our hiring platform.",
+                    "skills", List.of(Map.of("keyword", "java", "weight", 3),
+                            Map.of("keyword", "grpc", "weight", 2),
+                            Map.of("keyword", "kafka", "weight", 1))));
+            jobIds.add(reply.path("jobId").asInt());
+        }
+        // One-minute slots around the clock from tomorrow on, as the slot benchmark books them
+        firstMinute = (System.currentTimeMillis() / 60_000 / (24 * 60) + 1) * 24 * 60;
+        for (long i = 0, n = bookings / SLOTS_PER_INTERVIEWER + 1; i < n; i++) {
+            JsonNode reply = post("/interviewers", Map.of(
+                    "interviewerId", runId + "-" + i,
+                    "name", "Load interviewer " + i,
+                    "dayStartMinute", 0,
+                    "dayEndMinute", 24 * 60,
+                    "slotMinutes", 1,
+                    "zoneId", "UTC",
+                    "includeWeekends", true));
+            if (!reply.path("success").asBoolean()) {
+                throw new IllegalStateException("Could not add an interviewer: " + reply);
+            }
+        }
+        for (int i = 0; i < sockets; i++) {
+            scheduleSockets.add(new ScheduleSocket());
+        }
+    }
+
+    void close() {
+        scheduleSockets.forEach(ScheduleSocket::close);
+    }
+
+    /** Runs one arrival of the route, recording its latency from {@code intendedNanos}. */
+    void run(Route route, long intendedNanos, LatencyRecorder recorder) {
+        try {
+            switch (route) {
+                case JOBS -> get("/jobs", intendedNanos, recorder);
+                // One interviewer's next free slots, as a booking page asks; the unfiltered
+                // list is every interviewer's next two days, thousands of one-minute slots each
+                case SLOTS -> get("/slots?interviewerId=" + runId + "-0&limit=50", intendedNanos, recorder);
+                case APPLY -> {
+                    long n = sequence.incrementAndGet();
+                    send("/apply", Map.of(
+                            "jobId", jobIds.get((int) (n % jobIds.size())),
+                            "candidateName", "Candidate " + n,
+                            "candidateEmail", runId + "-" + n + "@example.com",
+                            "resumeText", resume()), intendedNanos, recorder);
+                }
+                case SCHEDULE -> {
+                    long n = sequence.incrementAndGet();
+                    send("/schedule", Map.of(
+                            "slotId", nextSlotId(),
+                            "candidateName", "Candidate " + n,
+                            "candidateEmail", runId + "-" + n + "@example.com",
+                            "jobId", jobIds.get((int) (n % jobIds.size()))), intendedNanos, recorder);
+                }
+                case WS_SCHEDULE -> {
+                    long n = sequence.incrementAndGet();
+                    scheduleSockets.get((int) (n % scheduleSockets.size())).book(n, intendedNanos, recorder);
+                }
+                case WS_SCREENING -> screen(intendedNanos, recorder);
+            }
+        } catch (Exception e) {
+            recorder.error();
+        }
+    }
+
+    private void get(String path, long intendedNanos, LatencyRecorder recorder) throws Exception {
+        HttpResponse<byte[]> response = http.send(HttpRequest.newBuilder(base.resolve(path)).timeout(TIMEOUT).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        record(response.statusCode() == 200, true, intendedNanos, recorder);
+    }
+
+    private void send(String path, Map<String, ?> body, long intendedNanos, LatencyRecorder recorder) throws Exception {
+        HttpResponse<byte[]> response = http.send(request(path, body), HttpResponse.BodyHandlers.ofByteArray());
+        boolean ok = response.statusCode() == 200;
+        record(ok, ok && json.readTree(response.body()).path("success").asBoolean(), intendedNanos, recorder);
+    }
+
+    private static void record(boolean ok, boolean success, long intendedNanos, LatencyRecorder recorder) {
+        long latency = System.nanoTime() - intendedNanos;
+        if (!ok) {
+            recorder.error();
+        } else if (success) {
+            recorder.ok(latency);
+        } else {
+            recorder.refused(latency);
+        }
+    }
+
+    // One client-streaming submission: a connection, a chunk per line, then the close.
+    // The endpoint only completes the screening call as the socket closes, so the
+    // score never reaches the client and the closing handshake ends the exchange.
+    private void screen(long intendedNanos, LatencyRecorder recorder) throws Exception {
+        CompletableFuture<Void> closed = new CompletableFuture<>();
+        boolean[] failed = {false};
+        WebSocket socket = http.newWebSocketBuilder().connectTimeout(Duration.ofSeconds(10))
+                .buildAsync(ws(base, "/ws/screening/submit"), new WebSocket.Listener() {
+                    @Override
+                    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                        failed[0] |= data.toString().startsWith("ERROR");
+                        webSocket.request(1);
+                        return null;
+                    }
+
+                    @Override
+                    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+                        closed.complete(null);
+                        return null;
+                    }
+
+                    @Override
+                    public void onError(WebSocket webSocket, Throwable error) {
+                        closed.completeExceptionally(error);
+                    }
+                }).get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        try {
+            for (String line : RESUME_LINES) {
+                socket.sendText(line, true).get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+            }
+            socket.sendClose(WebSocket.NORMAL_CLOSURE, "").get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+            closed.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        } finally {
+            socket.abort();
+        }
+        record(!failed[0], true, intendedNanos, recorder);
+    }
+
+    private String nextSlotId() {
+        long n = nextSlot.getAndIncrement();
+        return runId + "-" + n / SLOTS_PER_INTERVIEWER + "@" + (firstMinute + n % SLOTS_PER_INTERVIEWER);
+    }
+
+    private String resume() {
+        StringBuilder resume = new StringBuilder();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0, lines = 10 + random.nextInt(20); i < lines; i++) {
+            resume.append(RESUME_LINES[random.nextInt(RESUME_LINES.length)]).append('\n');
+        }
+        return resume.toString();
+    }
+
+    private JsonNode post(String path, Map<String, ?> body) throws Exception {
+        HttpResponse<byte[]> response = http.send(request(path, body), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("POST " + path + " returned " + response.statusCode());
+        }
+        return json.readTree(response.body());
+    }
+
+    private HttpRequest request(String path, Map<String, ?> body) throws IOException {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private static URI ws(URI base, String path) {
+        return URI.create(base.toString().replaceFirst("^http", "ws")).resolve(path);
+    }
+
+    /**
+     * A long-lived booking socket. Requests carry their own id, and each
+     * "CONFIRM id: message" reply is matched back to the arrival that sent it.
+     */
+    private final class ScheduleSocket implements WebSocket.Listener {
+        // Completed with whether the booking went through
+        private final Map<Long, CompletableFuture<Boolean>> pending = new ConcurrentHashMap<>();
+        // The client allows one outstanding send per socket
+        private final ReentrantLock sending = new ReentrantLock();
+        private final StringBuilder partial = new StringBuilder();
+        private final WebSocket socket;
+
+        ScheduleSocket() throws Exception {
+            socket = http.newWebSocketBuilder().connectTimeout(Duration.ofSeconds(10))
+                    .buildAsync(ws(base, "/ws/interviews/schedule"), this)
+                    .get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        }
+
+        void book(long n, long intendedNanos, LatencyRecorder recorder) throws Exception {
+            CompletableFuture<Boolean> reply = new CompletableFuture<>();
+            pending.put(n, reply);
+            String message = "Candidate " + n + "," + runId + "-" + n + "@example.com,"
+                    + jobIds.get((int) (n % jobIds.size())) + "," + nextSlotId() + "," + n;
+            try {
+                sending.lock();
+                try {
+                    socket.sendText(message, true).get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+                } finally {
+                    sending.unlock();
+                }
+                record(true, reply.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS), intendedNanos, recorder);
+            } finally {
+                pending.remove(n);
+            }
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                String message = partial.toString();
+                partial.setLength(0);
+                if (message.startsWith("CONFIRM ")) {
+                    int colon = message.indexOf(':');
+                    CompletableFuture<Boolean> reply = pending.get(Long.parseLong(message.substring(8, colon)));
+                    if (reply != null) {
+                        reply.complete(message.startsWith("Interview scheduled", colon + 2));
+                    }
+                } else if (!message.equals("DONE")) {
+                    System.err.println("Booking socket: " + message);
+                }
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            System.err.println("Booking socket failed: " + error);
+            pending.values().forEach(reply -> reply.completeExceptionally(error));
+        }
+
+        void close() {
+            socket.sendClose(WebSocket.NORMAL_CLOSURE, "").orTimeout(5, TimeUnit.SECONDS).exceptionally(e -> null).join();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.recruitment.screening;
+
+import com.google.protobuf.ByteString;
+import org.openjdk.jmh.annotations.*;
+import screening.CandidateScreeningServiceOuterClass.Skill;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scans a 64 KB resume against jobs with growing keyword lists. Time per scan
+ * should stay flat as keywords grow, since the automaton does constant work
+ * per byte.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeywordMatcherBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int keywords;
+
+    private KeywordMatcher matcher;
+    private List<ByteString> chunks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<Skill> skills = new ArrayList<>();
+        for (int i = 0; i < keywords; i++) {
+            skills.add(Skill.newBuilder().setKeyword(word(random) + (i % 3 == 0 ? " " + word(random) : ""))
+                    .setWeight(1 + i % 5).build());
+        }
+        matcher = KeywordMatcher.compile(skills);
+
+        chunks = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        for (int size = 0; size < 65536; ) {
+            // Mix in real keywords so matches and failure transitions both occur
+            line.append(random.nextInt(10) == 0 ? skills.get(random.nextInt(keywords)).getKeyword() : word(random))
+                    .append(random.nextInt(8) == 0 ? ", " : " ");
+            if (line.length() > 80) {
+                chunks.add(ByteString.copyFromUtf8(line.toString()));
+                size += line.length();
+                line.setLength(0);
+            }
+        }
+    }
+
+    @Benchmark
+    public int scan() {
+        KeywordMatcher.Scan scan = matcher.scan();
+        for (ByteString chunk : chunks) {
+            scan.accept(chunk);
+        }
+        return scan.score();
+    }
+
+    @Benchmark
+    public KeywordMatcher compile() {
+        return KeywordMatcher.compile(matcherSkills());
+    }
+
+    private List<Skill> matcherSkills() {
+        List<Skill> skills = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < keywords; i++) {
+            skills.add(Skill.newBuilder().setKeyword(word(random)).setWeight(1).build());
+        }
+        return skills;
+    }
+
+    private static String word(Random random) {
+        char[] w = new char[3 + random.nextInt(8)];
+        for (int i = 0; i < w.length; i++) {
+            w[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(w);
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.recruitment.screening;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import screening.CandidateScreeningServiceOuterClass.ResumeRequest;
+import screening.CandidateScreeningServiceOuterClass.ScreeningResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One submitResume stream per operation, fed in 80-character lines the way the
+ * job service sends them, against the previous implementation that joined every
+ * chunk into a StringBuilder and split the result on \s+. Chunks are parsed
+ * from wire bytes, as the server would see them; the old path's String decode
+ * is cached after the first operation, which only flatters it. Run with
+ * "-prof gc" to compare allocation per resume as well.
+ *
+ * <p>{@code calculateScore} scores the same text held as one String, as a
+ * stored resume is scored, with no stream or service in between.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ResumeScoringBenchmark {
+
+    private static final String[] WORDS = {"java", "grpc", "distributed", "systems", "kubernetes", "led", "team",
+            "of", "engineers", "designed", "scalable", "services", "with", "low", "latency", "and", "high", "uptime"};
+
+    @Param({"1024", "65536", "1048576", "5242880"})
+    int resumeBytes;
+
+    private List<ResumeRequest> chunks;
+    private List<ResumeRequest> legacyChunks;
+    private String text;
+    private CandidateScreeningServiceImpl service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        chunks = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        int size = 0;
+        for (int i = 0; size < resumeBytes; i++) {
+            String word = WORDS[i % WORDS.length];
+            if (line.length() + word.length() + 1 > 80) {
+                chunks.add(chunk(line.toString()));
+                size += line.length();
+                line.setLength(0);
+            }
+            line.append(word).append(' ');
+        }
+        legacyChunks = chunks.stream().map(c -> parse(c.toByteArray())).toList();
+        text = String.join("\n", chunks.stream().map(ResumeRequest::getContentChunk).toList());
+        chunks = chunks.stream().map(c -> parse(c.toByteArray())).toList();
+        service = new CandidateScreeningServiceImpl(Long.MAX_VALUE, false);
+    }
+
+    @Benchmark
+    public void incremental(Blackhole bh) {
+        StreamObserver<ResumeRequest> stream = service.submitResume(sink(bh));
+        for (ResumeRequest chunk : chunks) {
+            stream.onNext(chunk);
+        }
+        stream.onCompleted();
+    }
+
+    @Benchmark
+    public int calculateScore() {
+        return CandidateScreeningServiceImpl.calculateScore(text);
+    }
+
+    @Benchmark
+    public int bufferAndSplit() {
+        StringBuilder resume = new StringBuilder();
+        for (ResumeRequest chunk : legacyChunks) {
+            resume.append(chunk.getContentChunk());
+            resume.append("\n");
+        }
+        String text = resume.toString();
+        if (text.isEmpty()) return 0;
+        return Math.min(100, text.trim().split("\\s+").length);
+    }
+
+    private static ResumeRequest chunk(String line) {
+        return ResumeRequest.newBuilder().setCandidateEmail("bench@example.com").setContentChunk(line).build();
+    }
+
+    private static ResumeRequest parse(byte[] wire) {
+        try {
+            return ResumeRequest.parseFrom(wire);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static StreamObserver<ScreeningResult> sink(Blackhole bh) {
+        return new StreamObserver<>() {
+            @Override public void onNext(ScreeningResult value) { bh.consume(value); }
+            @Override public void onError(Throwable t) { bh.consume(t); }
+            @Override public void onCompleted() { }
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.recruitment.storage;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.BytesValue;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Write throughput and recovery time of the event log.
+ *
+ * <p>{@code append} has 16 threads each append an event and wait until it is
+ * durable, as an RPC handler does before acknowledging; group commit lets them
+ * share fsyncs. {@code appendMillion} pipelines 1M events from one thread and
+ * waits for the last. {@code recoverMillion} opens a log holding 1M events,
+ * replaying all of them.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class EventLogBenchmark {
+
+    private static final int MILLION = 1_000_000;
+
+    @Param({"100", "1000"})
+    int eventBytes;
+
+    private BytesValue event;
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        event = BytesValue.of(ByteString.copyFrom(new byte[eventBytes - 4]));
+        dir = Files.createTempDirectory("event-log-bench");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class OpenLog {
+        EventLog log;
+
+        @Setup(Level.Iteration)
+        public void open(EventLogBenchmark bench) throws IOException {
+            log = EventLog.open(Files.createTempDirectory(bench.dir, "append"), e -> { }, null, Long.MAX_VALUE, true);
+        }
+
+        @TearDown(Level.Iteration)
+        public void close() throws InterruptedException {
+            log.close();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(16)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public void append(OpenLog open) {
+        open.log.append(event).join();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public void appendMillion() throws Exception {
+        try (EventLog log = EventLog.open(Files.createTempDirectory(dir, "million"), e -> { }, null, Long.MAX_VALUE, true)) {
+            CompletableFuture<Void> last = null;
+            for (int i = 0; i < MILLION; i++) {
+                last = log.append(event);
+            }
+            last.join();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FullLog {
+        Path dir;
+
+        @Setup(Level.Trial)
+        public void fill(EventLogBenchmark bench) throws Exception {
+            dir = Files.createTempDirectory(bench.dir, "full");
+            try (EventLog log = EventLog.open(dir, e -> { }, null, Long.MAX_VALUE, false)) {
+                for (int i = 0; i < MILLION; i++) {
+                    log.append(bench.event);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public long recoverMillion(FullLog full) throws Exception {
+        long[] bytes = {0};
+        try (EventLog log = EventLog.open(full.dir, e -> bytes[0] += BytesValue.parseFrom(e).getValue().size(),
+                null, Long.MAX_VALUE, false)) {
+            return bytes[0];
+        }
+    }
+}
@@ -2,76 +2,96 @@ package org.example.recruitment;
 
 import org.example.recruitment.gateway.WebGateway;
 import org.example.recruitment.job.JobServiceImpl;
+import org.example.recruitment.metrics.Metrics;
+import org.example.recruitment.registry.ChannelManager;
+import org.example.recruitment.registry.DiscoveryCache;
+import org.example.recruitment.registry.ServiceRegistration;
 import org.example.recruitment.registry.ServiceRegistryImpl;
+import org.example.recruitment.server.ServerThreads;
 import org.example.recruitment.screening.CandidateScreeningServiceImpl;
 import org.example.recruitment.interview.InterviewServiceImpl;
+import io.grpc.BindableService;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
 import io.grpc.ManagedChannelBuilder;
-import registry.ServiceRegistryGrpc;
-import registry.ServiceRegistryOuterClass;
+import io.grpc.inprocess.InProcessServerBuilder;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public class MainLauncher {
 
+    // "tcp" (default): every call crosses loopback like between separate processes.
+    // "inprocess": calls between services in this JVM use gRPC's in-process
+    // transport; the TCP ports stay open for clients outside it.
+    static final String TRANSPORT = System.getProperty("recruitment.transport", "tcp");
+
     public static void main(String[] args) throws Exception {
         List<Server> servers = new ArrayList<>();
+        List<ServiceRegistration> registrations = new ArrayList<>();
 
         // 1. Start Registry
-        Server registryServer = ServerBuilder.forPort(9000)
+        Server registryServer = Metrics.instrument(ServerThreads.configure(ServerBuilder.forPort(9000), "ServiceRegistry"))
                 .addService(new ServiceRegistryImpl())
                 .build()
                 .start();
         System.out.println("Service Registry started on port 9000");
         servers.add(registryServer);
 
-        // Prepare stub to register others
-        var registryStub = ServiceRegistryGrpc.newBlockingStub(
-                ManagedChannelBuilder.forAddress("localhost", 9000).usePlaintext().build()
-        );
+        // Registry channel used to register the others and to discover them
+        var registryChannel = ManagedChannelBuilder.forAddress("localhost", 9000).usePlaintext().build();
+        // Filled in as services start, when they are also served in process
+        Set<String> inProcess = ConcurrentHashMap.newKeySet();
+        var channels = new ChannelManager(new DiscoveryCache(registryChannel, Duration.ofSeconds(30)).start(), inProcess);
 
-        // 2. Start Job Service
-        Server jobServer = ServerBuilder.forPort(9001)
-                .addService(new JobServiceImpl(registryStub))
-                .build()
-                .start();
+        // 2. Start Job Service. Each service's log lives in its own directory, named for its port
+        JobServiceImpl jobs = new JobServiceImpl(channels, "9001");
+        serve("JobService", 9001, jobs, servers, inProcess);
         System.out.println("Job Service started on port 9001");
-        registryStub.register(ServiceRegistryOuterClass.ServiceInfo.newBuilder()
-                .setName("JobService").setHost("localhost").setPort(9001).build());
-        servers.add(jobServer);
+        registrations.add(ServiceRegistration.register(registryChannel, "JobService", "localhost", 9001));
 
         // 3. Start Screening Service
-        Server screeningServer = ServerBuilder.forPort(9002)
-                .addService(new CandidateScreeningServiceImpl())
-                .build()
-                .start();
+        CandidateScreeningServiceImpl screening = new CandidateScreeningServiceImpl("9002");
+        serve("CandidateScreeningService", 9002, screening, servers, inProcess);
         System.out.println("Screening Service started on port 9002");
-        registryStub.register(ServiceRegistryOuterClass.ServiceInfo.newBuilder()
-                .setName("CandidateScreeningService").setHost("localhost").setPort(9002).build());
-        servers.add(screeningServer);
+        registrations.add(ServiceRegistration.register(registryChannel, "CandidateScreeningService", "localhost", 9002));
 
         // 4. Start Interview Service
-        Server interviewServer = ServerBuilder.forPort(9003)
-                .addService(new InterviewServiceImpl())
-                .build()
-                .start();
+        InterviewServiceImpl interviews = new InterviewServiceImpl(true, "9003");
+        serve("InterviewService", 9003, interviews, servers, inProcess);
         System.out.println("Interview Service started on port 9003");
-        registryStub.register(ServiceRegistryOuterClass.ServiceInfo.newBuilder()
-                .setName("InterviewService").setHost("localhost").setPort(9003).build());
-        servers.add(interviewServer);
+        registrations.add(ServiceRegistration.register(registryChannel, "InterviewService", "localhost", 9003));
 
         // 5. Start Web Gateway
         System.out.println("Starting Web Gateway on http://localhost:8080");
-        WebGateway.main(new String[0]);
+        WebGateway.start(inProcess);
 
         // Add shutdown hook
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             System.out.println("Shutting down services...");
+            registrations.forEach(ServiceRegistration::close);
             servers.forEach(s -> {
                 try { s.shutdown(); } catch (Exception e) { e.printStackTrace(); }
             });
+            // Only once no call can append any more: closing flushes what is queued.
+            // Watch streams never end on their own, so give calls a few seconds
+            try {
+                for (Server s : servers) {
+                    if (!s.awaitTermination(5, TimeUnit.SECONDS)) {
+                        s.shutdownNow().awaitTermination();
+                    }
+                }
+                jobs.close();
+                screening.close();
+                interviews.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }));
 
         // Block main thread until all services terminated
@@ -79,4 +99,15 @@ public class MainLauncher {
             s.awaitTermination();
         }
     }
+
+    private static void serve(String name, int port, BindableService service, List<Server> servers,
+                              Set<String> inProcess) throws IOException {
+        servers.add(Metrics.instrument(ServerThreads.configure(ServerBuilder.forPort(port), name)).addService(service).build().start());
+        if (TRANSPORT.equals("inprocess")) {
+            // Same service instance, so both transports see the same state
+            servers.add(Metrics.instrument(ServerThreads.configure(InProcessServerBuilder.forName(name), name))
+                    .addService(service).build().start());
+            inProcess.add(name);
+        }
+    }
 }
@@ -0,0 +1,285 @@
+package org.example.recruitment.gateway;
+
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32C;
+
+/**
+ * Shares read responses between polling clients. Concurrent requests for the
+ * same path and query join one backend call (single flight), and the body it
+ * renders is kept for a short while, tagged with an ETag. A request whose
+ * If-None-Match carries the current tag gets 304 with no body, and while the
+ * entry is fresh it gets that without any backend call.
+ *
+ * <p>A bounded read (one page, or a capped listing) is rendered whole before
+ * it is sent. An unbounded listing is streamed to the client of the request
+ * that renders it, as the backend produces it and without an ETag, while a
+ * copy is kept for the requests that joined it and for the cache. Only up to
+ * {@code MAX_CACHED_BYTES} is copied: past that the copy is dropped, and the
+ * requests waiting on it render the listing for themselves.
+ *
+ * <p>Changes made through the gateway invalidate the affected paths at once;
+ * changes from elsewhere show up when the entry expires. Failed calls are
+ * shared with whoever was waiting on them, but never cached.
+ */
+class ResponseCache {
+
+    private static final int MAX_ENTRIES = 1024;
+    // A bounded body can still be large (pageSize is the client's); such are shared, not kept
+    private static final int MAX_CACHED_BYTES = 8 << 20;
+
+    /** Writes a complete JSON response body. */
+    @FunctionalInterface
+    interface Renderer {
+        void render(OutputStream out) throws Exception;
+    }
+
+    private record Entry(byte[] body, String etag, long expiresAt) {
+        boolean fresh(long now) {
+            return now - expiresAt < 0;
+        }
+    }
+
+    private final long ttlNanos;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+    // Bumped by every invalidation, so a render that started before one isn't cached after it
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder renders = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder streamed = new LongAdder();
+
+    ResponseCache(Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Answers from the cache, a call already in flight, or the renderer. An
+     * unbounded request that has to render streams its body as it goes.
+     */
+    void serve(Context ctx, boolean bounded, Renderer renderer) throws Exception {
+        String key = ctx.queryString() == null ? ctx.path() : ctx.path() + "?" + ctx.queryString();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.fresh(System.nanoTime())) {
+            hits.increment();
+        } else {
+            entry = bounded ? load(key, renderer) : stream(ctx, key, renderer);
+            if (entry == null) {
+                return;
+            }
+        }
+
+        ctx.header("ETag", entry.etag());
+        ctx.header("Cache-Control", "no-cache");
+        if (matches(ctx.header("If-None-Match"), entry.etag())) {
+            notModified.increment();
+            ctx.status(304);
+            return;
+        }
+        ctx.contentType(ContentType.APPLICATION_JSON);
+        ctx.result(entry.body());
+    }
+
+    /** Drops every cached response whose path starts with the prefix. */
+    void invalidate(String pathPrefix) {
+        generation.incrementAndGet();
+        entries.keySet().removeIf(key -> key.startsWith(pathPrefix));
+    }
+
+    Map<String, Object> stats() {
+        Map<String, Object> stats = new TreeMap<>();
+        stats.put("entries", entries.size());
+        stats.put("hits", hits.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("renders", renders.sum());
+        stats.put("notModified", notModified.sum());
+        stats.put("streamed", streamed.sum());
+        return stats;
+    }
+
+    private Entry load(String key, Renderer renderer) throws Exception {
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.increment();
+            return await(leader);
+        }
+        try {
+            long startGeneration = generation.get();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            renders.increment();
+            renderer.render(body);
+            return finish(key, mine, body.toByteArray(), startGeneration);
+        } catch (Throwable t) {
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Joins a render in flight, or renders straight to the client while keeping a copy for
+    // the others; null once the body has been sent
+    private Entry stream(Context ctx, String key, Renderer renderer) throws Exception {
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.increment();
+            Entry entry = await(leader);
+            if (entry != null) {
+                return entry;
+            }
+        }
+        try {
+            long startGeneration = generation.get();
+            streamed.increment();
+            renders.increment();
+            ctx.contentType(ContentType.APPLICATION_JSON);
+            if (leader != null) {
+                // The leader's copy outgrew the cap, so there is nothing to share
+                renderer.render(ctx.outputStream());
+                return null;
+            }
+            Tee body = new Tee(ctx.outputStream());
+            renderer.render(body);
+            finish(key, mine, body.copy(), startGeneration);
+            return null;
+        } catch (Throwable t) {
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            if (leader == null) {
+                inFlight.remove(key, mine);
+            }
+        }
+    }
+
+    // Hands the body to the requests that joined, and keeps it if it is current and small enough
+    private Entry finish(String key, CompletableFuture<Entry> mine, byte[] bytes, long startGeneration) {
+        if (bytes == null) {
+            mine.complete(null);
+            return null;
+        }
+        long now = System.nanoTime();
+        Entry entry = new Entry(bytes, etag(bytes), now + ttlNanos);
+        if (ttlNanos > 0 && bytes.length <= MAX_CACHED_BYTES && generation.get() == startGeneration) {
+            store(key, entry, now);
+        }
+        mine.complete(entry);
+        return entry;
+    }
+
+    private void store(String key, Entry entry, long now) {
+        if (entries.size() >= MAX_ENTRIES) {
+            entries.values().removeIf(e -> !e.fresh(now));
+            if (entries.size() >= MAX_ENTRIES) {
+                return;
+            }
+        }
+        entries.put(key, entry);
+    }
+
+    // Rethrows the leader's failure as is, so the gateway's exception mapping still applies
+    private static Entry await(CompletableFuture<Entry> leader) throws Exception {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /** Writes through to the client, copying up to {@code MAX_CACHED_BYTES} on the side. */
+    private static final class Tee extends OutputStream {
+        private final OutputStream client;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        Tee(OutputStream client) {
+            this.client = client;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            client.write(b);
+            if (copy != null) {
+                keep(1);
+                if (copy != null) {
+                    copy.write(b);
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            client.write(b, off, len);
+            if (copy != null) {
+                keep(len);
+                if (copy != null) {
+                    copy.write(b, off, len);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            client.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            client.close();
+        }
+
+        // Drops the copy once it would grow past the cap
+        private void keep(int more) {
+            if (copy.size() + more > MAX_CACHED_BYTES) {
+                copy = null;
+            }
+        }
+
+        /** The whole body, or null if it outgrew the cap. */
+        byte[] copy() {
+            return copy == null ? null : copy.toByteArray();
+        }
+    }
+
+    private static String etag(byte[] body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        return "\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(body.length) + "\"";
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
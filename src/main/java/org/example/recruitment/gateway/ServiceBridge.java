@@ -1,33 +1,66 @@
 package org.example.recruitment.gateway;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.protobuf.Empty;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
 import io.grpc.stub.StreamObserver;
 import io.javalin.Javalin;
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
 
+import org.example.recruitment.metrics.Metrics;
+import org.example.recruitment.registry.ChannelManager;
+import org.example.recruitment.registry.DiscoveryCache;
+import org.example.recruitment.server.ServerThreads;
 import job.JobServiceGrpc;
 import job.JobServiceOuterClass;
 import screening.CandidateScreeningServiceGrpc;
 import screening.CandidateScreeningServiceOuterClass;
 import interview.InterviewServiceGrpc;
 import interview.InterviewServiceOuterClass;
-import registry.ServiceRegistryGrpc;
-import registry.ServiceRegistryOuterClass;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class ServiceBridge {
 
-    private static ServiceRegistryGrpc.ServiceRegistryBlockingStub registryStub;
+    private static final JsonFactory JSON = new JsonFactory();
+    // Unanswered booking requests one WebSocket may have outstanding before reading pauses
+    private static final int MAX_WS_IN_FLIGHT = 256;
+
+    // Polled reads: /jobs, /slots and /screening
+    private static final ResponseCache RESPONSES =
+            new ResponseCache(Duration.ofMillis(Long.getLong("recruitment.gateway.cacheMillis", 1000)));
+
+    private static ChannelManager channels;
 
     public static class JobCreateRequest {
         public String title;
         public String company;
         public String description;
+        public List<SkillDTO> skills;
+    }
+
+    public static class SkillDTO {
+        public String keyword;
+        public int weight = 1;
     }
 
     public static class ApplicationRequestDTO {
@@ -44,34 +77,139 @@ public class ServiceBridge {
         public int jobId;
     }
 
-    public static void registerRoutes(Javalin app) {
+    public static class RescreenDTO {
+        // Omit to rescore against the job's current skills
+        public List<SkillDTO> skills;
+    }
+
+    public static class ScheduleBatchDTO {
+        public boolean atomic;
+        public List<ScheduleRequestDTO> requests;
+    }
+
+    public static class InterviewerDTO {
+        public String interviewerId;
+        public String name;
+        public int dayStartMinute;
+        public int dayEndMinute;
+        public int slotMinutes;
+        public String zoneId;
+        public boolean includeWeekends;
+    }
+
+    public static void registerRoutes(Javalin app, Set<String> inProcess) {
         var registryChannel = ManagedChannelBuilder.forAddress("localhost", 9000).usePlaintext().build();
-        registryStub = ServiceRegistryGrpc.newBlockingStub(registryChannel);
+        var discovery = new DiscoveryCache(registryChannel, Duration.ofSeconds(30)).start();
+        channels = new ChannelManager(discovery, inProcess);
+        app.events(event -> event.serverStopping(() -> {
+            channels.shutdown();
+            discovery.shutdown();
+            registryChannel.shutdown();
+        }));
+
+        app.exception(StatusRuntimeException.class, (e, ctx) -> {
+            int httpStatus = switch (e.getStatus().getCode()) {
+                case NOT_FOUND -> 404;
+                case INVALID_ARGUMENT -> 400;
+                case UNAVAILABLE, RESOURCE_EXHAUSTED -> 503;
+                case DEADLINE_EXCEEDED -> 504;
+                default -> 500;
+            };
+            ctx.status(httpStatus).json(Map.of("success", false, "message", String.valueOf(e.getStatus().getDescription())));
+        });
+
+        app.exception(NumberFormatException.class, (e, ctx) ->
+                ctx.status(400).json(Map.of("success", false, "message", "Invalid number: " + e.getMessage())));
 
         // REST endpoints
         app.post("/jobs", ctx -> {
             var req = ctx.bodyAsClass(JobCreateRequest.class);
             var stub = JobServiceGrpc.newBlockingStub(getChannel("JobService"));
-            var response = stub.createJob(JobServiceOuterClass.Job.newBuilder()
+            var job = JobServiceOuterClass.Job.newBuilder()
                     .setTitle(req.title)
                     .setCompany(req.company)
-                    .setDescription(req.description)
-                    .build());
+                    .setDescription(req.description);
+            for (SkillDTO skill : Objects.requireNonNullElse(req.skills, List.<SkillDTO>of())) {
+                job.addSkills(JobServiceOuterClass.Skill.newBuilder()
+                        .setKeyword(Objects.requireNonNullElse(skill.keyword, ""))
+                        .setWeight(skill.weight));
+            }
+            var response = stub.createJob(job.build());
+            RESPONSES.invalidate("/jobs");
             ctx.json(Map.of("success", response.getSuccess(), "jobId", response.getJobId()));
         });
 
-        app.get("/jobs", ctx -> {
+        // Progress as newline-delimited JSON, one line per update, the last with "done": true
+        app.post("/jobs/{id}/rescreen", ctx -> {
+            var req = ctx.body().isBlank() ? new RescreenDTO() : ctx.bodyAsClass(RescreenDTO.class);
+            var rescreen = JobServiceOuterClass.RescreenRequest.newBuilder()
+                    .setJobId(Integer.parseInt(ctx.pathParam("id")))
+                    .setUpdateSkills(req.skills != null);
+            for (SkillDTO skill : Objects.requireNonNullElse(req.skills, List.<SkillDTO>of())) {
+                rescreen.addSkills(JobServiceOuterClass.Skill.newBuilder()
+                        .setKeyword(Objects.requireNonNullElse(skill.keyword, ""))
+                        .setWeight(skill.weight));
+            }
             var stub = JobServiceGrpc.newBlockingStub(getChannel("JobService"));
-            var jobs = stub.listJobs(Empty.getDefaultInstance());
-            List<Map<String, Object>> jobList = jobs.getJobsList().stream().map(job -> {
-                Map<String, Object> map = new HashMap<>();
-                map.put("id", job.getId());
-                map.put("title", job.getTitle());
-                map.put("description", job.getDescription());
-                map.put("company", job.getCompany());
-                return map;
-            }).collect(Collectors.toList());
-            ctx.json(jobList);
+            var progress = stub.rescreenJob(rescreen.build());
+            RESPONSES.invalidate("/jobs");
+            ctx.contentType("application/x-ndjson");
+            var out = ctx.outputStream();
+            while (progress.hasNext()) {
+                var p = progress.next();
+                try (JsonGenerator json = JSON.createGenerator(out)) {
+                    json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    json.writeStartObject();
+                    json.writeNumberField("jobId", p.getJobId());
+                    json.writeNumberField("criteriaRevision", p.getCriteriaRevision());
+                    json.writeNumberField("total", p.getTotal());
+                    json.writeNumberField("rescreened", p.getRescreened());
+                    json.writeBooleanField("done", p.getDone());
+                    json.writeStringField("message", p.getMessage());
+                    json.writeEndObject();
+                }
+                out.write('\n');
+                out.flush();
+            }
+        });
+
+        // ?pageSize=&cursor= returns one page plus nextCursor; without pageSize every
+        // matching job is streamed as a chunked JSON array, and shared with concurrent pollers
+        app.get("/jobs", ctx -> RESPONSES.serve(ctx, ctx.queryParam("pageSize") != null, out -> {
+            var stub = JobServiceGrpc.newBlockingStub(getChannel("JobService"));
+            var query = JobServiceOuterClass.JobQuery.newBuilder()
+                    .setCompany(Objects.requireNonNullElse(ctx.queryParam("company"), ""))
+                    .setPageSize(intParam(ctx, "pageSize"))
+                    .setCursor(intParam(ctx, "cursor"))
+                    .build();
+            if (ctx.queryParam("pageSize") != null) {
+                var page = stub.listJobs(query);
+                writePage(out, "jobs", page.getJobsList(), page.getNextCursor(), ServiceBridge::writeJob);
+            } else {
+                streamArray(out, () -> stub.streamJobs(query), JobServiceOuterClass.JobList::getJobsList,
+                        ServiceBridge::writeJob);
+            }
+        }));
+
+        // Ranked full-text search; the last word of q also matches as a prefix
+        app.get("/jobs/search", ctx -> {
+            var stub = JobServiceGrpc.newBlockingStub(getChannel("JobService"));
+            var results = stub.searchJobs(JobServiceOuterClass.JobSearchRequest.newBuilder()
+                    .setQuery(Objects.requireNonNullElse(ctx.queryParam("q"), ""))
+                    .setLimit(intParam(ctx, "limit"))
+                    .build());
+            ctx.contentType(ContentType.APPLICATION_JSON);
+            try (JsonGenerator json = JSON.createGenerator(ctx.outputStream())) {
+                json.writeStartArray();
+                for (var hit : results.getHitsList()) {
+                    json.writeStartObject();
+                    json.writeNumberField("score", hit.getScore());
+                    json.writeFieldName("job");
+                    writeJob(json, hit.getJob());
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+            }
         });
 
         app.post("/apply", ctx -> {
@@ -82,34 +220,66 @@ public class ServiceBridge {
                     .setCandidateName(req.candidateName)
                     .setCandidateEmail(req.candidateEmail)
                     .setResumeText(req.resumeText)
+                    .setIdempotencyKey(Objects.requireNonNullElse(ctx.header("Idempotency-Key"), ""))
                     .build());
-            ctx.json(Map.of("success", resp.getSuccess(), "message", resp.getMessage()));
+            ctx.json(Map.of("success", resp.getSuccess(), "message", resp.getMessage(),
+                    "applicationId", resp.getApplicationId(), "duplicate", resp.getDuplicate()));
         });
 
-        app.get("/screening", ctx -> {
+        app.get("/screening", ctx -> RESPONSES.serve(ctx, true, out -> {
             String email = ctx.queryParam("email");
             var stub = CandidateScreeningServiceGrpc.newBlockingStub(getChannel("CandidateScreeningService"));
             var result = stub.getScreeningResult(CandidateScreeningServiceOuterClass.ScreeningQuery.newBuilder()
                     .setCandidateEmail(email)
                     .build());
-            Map<String, Object> map = new HashMap<>();
-            map.put("email", result.getCandidateEmail());
-            map.put("score", result.getScore());
-            map.put("feedback", result.getFeedback());
-            ctx.json(map);
-        });
+            try (JsonGenerator json = JSON.createGenerator(out)) {
+                json.writeStartObject();
+                json.writeStringField("email", result.getCandidateEmail());
+                json.writeNumberField("score", result.getScore());
+                json.writeStringField("feedback", result.getFeedback());
+                json.writeEndObject();
+            }
+        }));
 
-        app.get("/slots", ctx -> {
+        // Without parameters: the next couple of days. from/to are epoch minutes, window capped server-side.
+        // Always bounded, since the service caps how many slots one listing returns
+        app.get("/slots", ctx -> RESPONSES.serve(ctx, true, out -> {
             var stub = InterviewServiceGrpc.newBlockingStub(getChannel("InterviewService"));
-            var slots = stub.listAvailableSlots(Empty.getDefaultInstance());
-            List<Map<String, Object>> slotList = slots.getSlotsList().stream().map(slot -> {
-                Map<String, Object> map = new HashMap<>();
-                map.put("slotId", slot.getSlotId());
-                map.put("time", slot.getTime());
-                map.put("booked", slot.getBooked());
-                return map;
-            }).collect(Collectors.toList());
-            ctx.json(slotList);
+            InterviewServiceOuterClass.SlotList slots;
+            if (ctx.queryParam("from") == null && ctx.queryParam("to") == null
+                    && ctx.queryParam("interviewerId") == null) {
+                slots = stub.listAvailableSlots(Empty.getDefaultInstance());
+            } else {
+                slots = stub.listFreeSlots(InterviewServiceOuterClass.SlotRangeQuery.newBuilder()
+                        .setFromEpochMinute(longParam(ctx, "from"))
+                        .setToEpochMinute(longParam(ctx, "to"))
+                        .setInterviewerId(Objects.requireNonNullElse(ctx.queryParam("interviewerId"), ""))
+                        .setLimit(intParam(ctx, "limit"))
+                        .build());
+            }
+            try (JsonGenerator json = JSON.createGenerator(out)) {
+                json.writeStartArray();
+                for (var slot : slots.getSlotsList()) {
+                    writeSlot(json, slot);
+                }
+                json.writeEndArray();
+            }
+        }));
+
+        app.post("/interviewers", ctx -> {
+            var req = ctx.bodyAsClass(InterviewerDTO.class);
+            var stub = InterviewServiceGrpc.newBlockingStub(getChannel("InterviewService"));
+            var result = stub.addInterviewer(InterviewServiceOuterClass.Interviewer.newBuilder()
+                    .setInterviewerId(Objects.requireNonNullElse(req.interviewerId, ""))
+                    .setName(Objects.requireNonNullElse(req.name, ""))
+                    .setDayStartMinute(req.dayStartMinute)
+                    .setDayEndMinute(req.dayEndMinute)
+                    .setSlotMinutes(req.slotMinutes)
+                    .setZoneId(Objects.requireNonNullElse(req.zoneId, ""))
+                    .setIncludeWeekends(req.includeWeekends)
+                    .build());
+            RESPONSES.invalidate("/slots");
+            ctx.json(Map.of("success", result.getSuccess(), "message", result.getMessage()));
         });
 
         app.post("/schedule", ctx -> {
@@ -121,22 +291,97 @@ public class ServiceBridge {
                     .setJobId(req.jobId)
                     .setSlotId(req.slotId)
                     .build());
+            RESPONSES.invalidate("/slots");
             ctx.json(Map.of("success", result.getSuccess(), "message", result.getMessage()));
         });
 
+        // One call for a whole cohort; "atomic": true books all or none
+        app.post("/schedule/batch", ctx -> {
+            var req = ctx.bodyAsClass(ScheduleBatchDTO.class);
+            var batch = InterviewServiceOuterClass.InterviewBatchRequest.newBuilder().setAtomic(req.atomic);
+            for (ScheduleRequestDTO item : Objects.requireNonNullElse(req.requests, List.<ScheduleRequestDTO>of())) {
+                batch.addRequests(InterviewServiceOuterClass.InterviewRequest.newBuilder()
+                        .setCandidateName(item.candidateName)
+                        .setCandidateEmail(item.candidateEmail)
+                        .setJobId(item.jobId)
+                        .setSlotId(item.slotId));
+            }
+            var stub = InterviewServiceGrpc.newBlockingStub(getChannel("InterviewService"));
+            var result = stub.scheduleInterviewBatch(batch.build());
+            RESPONSES.invalidate("/slots");
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (int i = 0; i < result.getResultsCount(); i++) {
+                var item = result.getResults(i);
+                results.add(Map.of("slotId", batch.getRequests(i).getSlotId(),
+                        "success", item.getSuccess(), "message", item.getMessage()));
+            }
+            ctx.json(Map.of("success", result.getSuccess(), "message", result.getMessage(),
+                    "booked", result.getBooked(), "results", results));
+        });
+
+        // Filters: jobId, company, minScore, email. Paging works as for /jobs
         app.get("/applications", ctx -> {
             var stub = JobServiceGrpc.newBlockingStub(getChannel("JobService"));
-            var apps = stub.listApplications(Empty.getDefaultInstance());
-            List<Map<String, Object>> list = apps.getApplicationsList().stream().map(a -> {
-                Map<String, Object> map = new HashMap<>();
-                map.put("candidateName", a.getCandidateName());
-                map.put("candidateEmail", a.getCandidateEmail());
-                map.put("jobId", a.getJobId());
-                map.put("screeningScore", a.getScreeningScore());
-                map.put("screeningFeedback", a.getScreeningFeedback());
-                return map;
-            }).collect(Collectors.toList());
-            ctx.json(list);
+            var filter = JobServiceOuterClass.ApplicationFilter.newBuilder()
+                    .setJobId(intParam(ctx, "jobId"))
+                    .setCompany(Objects.requireNonNullElse(ctx.queryParam("company"), ""))
+                    .setMinScore(intParam(ctx, "minScore"))
+                    .setCandidateEmail(Objects.requireNonNullElse(ctx.queryParam("email"), ""))
+                    .setPageSize(intParam(ctx, "pageSize"))
+                    .setCursor(intParam(ctx, "cursor"))
+                    .build();
+            if (ctx.queryParam("pageSize") != null) {
+                var page = stub.listApplications(filter);
+                writePage(ctx, "applications", page.getApplicationsList(), page.getNextCursor(),
+                        ServiceBridge::writeApplication);
+            } else {
+                streamArray(ctx, () -> stub.streamApplications(filter),
+                        JobServiceOuterClass.ApplicationList::getApplicationsList, ServiceBridge::writeApplication);
+            }
+        });
+
+        // Best screened candidates for a job, highest score first; ?k= defaults to 50
+        app.get("/jobs/{id}/top", ctx -> {
+            var stub = JobServiceGrpc.newBlockingStub(getChannel("JobService"));
+            var top = stub.topCandidates(JobServiceOuterClass.TopCandidatesRequest.newBuilder()
+                    .setJobId(Integer.parseInt(ctx.pathParam("id")))
+                    .setK(intParam(ctx, "k"))
+                    .build());
+            ctx.json(top.getApplicationsList().stream().map(ServiceBridge::applicationToMap).toList());
+        });
+
+        // Poll one application's screening state
+        app.get("/applications/{id}", ctx -> {
+            var stub = JobServiceGrpc.newBlockingStub(getChannel("JobService"));
+            var application = stub.getApplication(JobServiceOuterClass.ApplicationQuery.newBuilder()
+                    .setApplicationId(Integer.parseInt(ctx.pathParam("id")))
+                    .build());
+            ctx.json(applicationToMap(application));
+        });
+
+        // Server-sent events: current state, then the screened state once it lands
+        app.sse("/applications/{id}/events", client -> {
+            client.keepAlive();
+            var stub = JobServiceGrpc.newStub(getChannel("JobService"));
+            stub.watchApplication(JobServiceOuterClass.ApplicationQuery.newBuilder()
+                    .setApplicationId(Integer.parseInt(client.ctx().pathParam("id")))
+                    .build(), new StreamObserver<JobServiceOuterClass.Application>() {
+                @Override
+                public void onNext(JobServiceOuterClass.Application value) {
+                    client.sendEvent("application", applicationToMap(value));
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    client.sendEvent("error", t.getMessage());
+                    client.close();
+                }
+
+                @Override
+                public void onCompleted() {
+                    client.close();
+                }
+            });
         });
 
         app.get("/interviews", ctx -> {
@@ -154,6 +399,26 @@ public class ServiceBridge {
             ctx.json(list);
         });
 
+        app.get("/stats/channels", ctx -> ctx.json(channels.stats()));
+        app.get("/stats/discovery", ctx -> ctx.json(channels.discovery().stats()));
+        app.get("/stats/responses", ctx -> ctx.json(RESPONSES.stats()));
+        app.get("/stats/threads", ctx -> ctx.json(ServerThreads.stats()));
+        // Prometheus text format, for this gateway and every service running in its JVM
+        app.get("/metrics", ctx -> ctx.contentType(Metrics.CONTENT_TYPE).result(Metrics.scrape()));
+        app.get("/stats/screening", ctx -> {
+            var stub = CandidateScreeningServiceGrpc.newBlockingStub(getChannel("CandidateScreeningService"));
+            var stats = stub.getCacheStats(CandidateScreeningServiceOuterClass.CacheStatsRequest.getDefaultInstance());
+            Map<String, Object> map = new HashMap<>();
+            map.put("size", stats.getSize());
+            map.put("maxEntries", stats.getMaxEntries());
+            map.put("ttlSeconds", stats.getTtlSeconds());
+            map.put("hits", stats.getHits());
+            map.put("misses", stats.getMisses());
+            map.put("evictions", stats.getEvictions());
+            map.put("expirations", stats.getExpirations());
+            ctx.json(map);
+        });
+
         // WebSocket: Resume Submission (Client Streaming)
         app.ws("/ws/screening/submit", ws -> {
             ws.onConnect(ctx -> {
@@ -199,16 +464,29 @@ public class ServiceBridge {
         });
 
         // WebSocket: Interview Scheduling (Bidirectional Streaming)
+        // In: "name,email,jobId,slotId[,requestId]"; out: "CONFIRM <requestId>: <message>", in request order
         app.ws("/ws/interviews/schedule", ws -> {
             ws.onConnect(ctx -> {
+                var flow = new WsFlowControl(ctx.session, MAX_WS_IN_FLIGHT);
                 var stub = InterviewServiceGrpc.newStub(getChannel("InterviewService"));
-                StreamObserver<InterviewServiceOuterClass.InterviewRequest> reqStream =
-                        stub.scheduleInterviewStream(new StreamObserver<InterviewServiceOuterClass.InterviewResponse>() {
+                StreamObserver<InterviewServiceOuterClass.InterviewRequest> reqStream = stub.scheduleInterviewStream(
+                        new ClientResponseObserver<InterviewServiceOuterClass.InterviewRequest,
+                                InterviewServiceOuterClass.InterviewResponse>() {
+                            @Override
+                            public void beforeStart(ClientCallStreamObserver<InterviewServiceOuterClass.InterviewRequest> requests) {
+                                flow.attach(requests);
+                            }
+
                             @Override
                             public void onNext(InterviewServiceOuterClass.InterviewResponse response) {
+                                if (response.getSuccess()) {
+                                    RESPONSES.invalidate("/slots");
+                                }
+                                // Blocking send: a slow socket holds back replies, and through them the service
                                 if (ctx.session.isOpen()) {
-                                    ctx.send("CONFIRM: " + response.getMessage());
+                                    ctx.send("CONFIRM " + response.getRequestId() + ": " + response.getMessage());
                                 }
+                                flow.answered();
                             }
 
                             @Override
@@ -226,20 +504,31 @@ public class ServiceBridge {
                             }
                         });
                 ctx.attribute("stream", reqStream);
+                ctx.attribute("flow", flow);
+                ctx.attribute("nextRequestId", new AtomicLong(1));
             });
 
             ws.onMessage(ctx -> {
                 var stream = ctx.attribute("stream");
                 if (stream != null) {
                     String[] parts = ctx.message().split(",");
-                    ((StreamObserver<InterviewServiceOuterClass.InterviewRequest>) stream).onNext(
-                            InterviewServiceOuterClass.InterviewRequest.newBuilder()
-                                    .setCandidateName(parts[0])
-                                    .setCandidateEmail(parts[1])
-                                    .setJobId(Integer.parseInt(parts[2]))
-                                    .setSlotId(parts[3])
-                                    .build()
-                    );
+                    InterviewServiceOuterClass.InterviewRequest request;
+                    try {
+                        request = InterviewServiceOuterClass.InterviewRequest.newBuilder()
+                                .setCandidateName(parts[0])
+                                .setCandidateEmail(parts[1])
+                                .setJobId(Integer.parseInt(parts[2]))
+                                .setSlotId(parts[3])
+                                .setRequestId(parts.length > 4
+                                        ? Long.parseLong(parts[4].trim())
+                                        : ctx.<AtomicLong>attribute("nextRequestId").getAndIncrement())
+                                .build();
+                    } catch (RuntimeException e) {
+                        ctx.send("ERROR: malformed request, expected name,email,jobId,slotId[,requestId]");
+                        return;
+                    }
+                    ((StreamObserver<InterviewServiceOuterClass.InterviewRequest>) stream).onNext(request);
+                    ctx.<WsFlowControl>attribute("flow").sent();
                 }
             });
 
@@ -250,10 +539,126 @@ public class ServiceBridge {
         });
     }
 
+    @FunctionalInterface
+    interface JsonWriter<T> {
+        void write(JsonGenerator json, T value) throws IOException;
+    }
+
+    // Writes each gRPC chunk as soon as it arrives, so neither side holds the full list.
+    // The blocking iterator only pulls the next chunk once we've written this one.
+    private static <C, T> void streamArray(Context ctx, Supplier<Iterator<C>> call, Function<C, List<T>> items,
+                                           JsonWriter<T> writer) throws Exception {
+        ctx.contentType(ContentType.APPLICATION_JSON);
+        streamArray(ctx.outputStream(), call, items, writer);
+    }
+
+    private static <C, T> void streamArray(OutputStream out, Supplier<Iterator<C>> call, Function<C, List<T>> items,
+                                           JsonWriter<T> writer) throws Exception {
+        // Cancel the backend stream if the HTTP client goes away mid-response
+        io.grpc.Context.CancellableContext grpcContext = io.grpc.Context.current().withCancellation();
+        try {
+            grpcContext.call(() -> {
+                Iterator<C> chunks = call.get();
+                try (JsonGenerator json = JSON.createGenerator(out)) {
+                    json.writeStartArray();
+                    while (chunks.hasNext()) {
+                        for (T item : items.apply(chunks.next())) {
+                            writer.write(json, item);
+                        }
+                        json.flush();
+                    }
+                    json.writeEndArray();
+                }
+                return null;
+            });
+        } finally {
+            grpcContext.cancel(null);
+        }
+    }
+
+    private static <T> void writePage(Context ctx, String field, List<T> items, int nextCursor,
+                                      JsonWriter<T> writer) throws IOException {
+        ctx.contentType(ContentType.APPLICATION_JSON);
+        writePage(ctx.outputStream(), field, items, nextCursor, writer);
+    }
+
+    static <T> void writePage(OutputStream out, String field, List<T> items, int nextCursor,
+                                      JsonWriter<T> writer) throws IOException {
+        try (JsonGenerator json = JSON.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart(field);
+            for (T item : items) {
+                writer.write(json, item);
+            }
+            json.writeEndArray();
+            json.writeNumberField("nextCursor", nextCursor);
+            json.writeEndObject();
+        }
+    }
+
+    static void writeJob(JsonGenerator json, JobServiceOuterClass.Job job) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", job.getId());
+        json.writeStringField("title", job.getTitle());
+        json.writeStringField("description", job.getDescription());
+        json.writeStringField("company", job.getCompany());
+        json.writeArrayFieldStart("skills");
+        for (JobServiceOuterClass.Skill skill : job.getSkillsList()) {
+            json.writeStartObject();
+            json.writeStringField("keyword", skill.getKeyword());
+            json.writeNumberField("weight", skill.getWeight());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    static void writeApplication(JsonGenerator json, JobServiceOuterClass.Application a) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("applicationId", a.getApplicationId());
+        json.writeStringField("candidateName", a.getCandidateName());
+        json.writeStringField("candidateEmail", a.getCandidateEmail());
+        json.writeNumberField("jobId", a.getJobId());
+        json.writeNumberField("screeningScore", a.getScreeningScore());
+        json.writeStringField("screeningFeedback", a.getScreeningFeedback());
+        json.writeStringField("status", a.getStatus().name());
+        json.writeEndObject();
+    }
+
+    static void writeSlot(JsonGenerator json, InterviewServiceOuterClass.Slot slot) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("slotId", slot.getSlotId());
+        json.writeStringField("time", slot.getTime());
+        json.writeBooleanField("booked", slot.getBooked());
+        json.writeStringField("interviewerId", slot.getInterviewerId());
+        json.writeNumberField("startEpochMinute", slot.getStartEpochMinute());
+        json.writeNumberField("durationMinutes", slot.getDurationMinutes());
+        json.writeEndObject();
+    }
+
+    private static int intParam(Context ctx, String name) {
+        String value = ctx.queryParam(name);
+        return value == null || value.isEmpty() ? 0 : Integer.parseInt(value);
+    }
+
+    private static long longParam(Context ctx, String name) {
+        String value = ctx.queryParam(name);
+        return value == null || value.isEmpty() ? 0 : Long.parseLong(value);
+    }
+
+    static Map<String, Object> applicationToMap(JobServiceOuterClass.Application a) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("applicationId", a.getApplicationId());
+        map.put("candidateName", a.getCandidateName());
+        map.put("candidateEmail", a.getCandidateEmail());
+        map.put("jobId", a.getJobId());
+        map.put("screeningScore", a.getScreeningScore());
+        map.put("screeningFeedback", a.getScreeningFeedback());
+        map.put("status", a.getStatus().name());
+        return map;
+    }
+
     private static ManagedChannel getChannel(String serviceName) {
-        var info = registryStub.discover(ServiceRegistryOuterClass.ServiceQuery.newBuilder()
-                .setName(serviceName)
-                .build());
-        return ManagedChannelBuilder.forAddress(info.getHost(), info.getPort()).usePlaintext().build();
+        return channels.getChannel(serviceName);
     }
 }
@@ -1,21 +1,89 @@
 package org.example.recruitment.gateway;
 
 import io.javalin.Javalin;
+import io.javalin.http.Context;
+import io.javalin.http.ServiceUnavailableResponse;
 import io.javalin.http.staticfiles.Location;
+import io.javalin.util.ConcurrencyUtil;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.example.recruitment.metrics.Metrics;
+import org.example.recruitment.server.ServerThreads;
+
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 public class WebGateway {
 
+    static final int PORT = 8080;
+    // Connections not yet accepted; the JDK default of 50 drops bursts of new clients
+    static final int ACCEPT_QUEUE = Integer.getInteger("recruitment.gateway.acceptQueue", 1024);
+
     public static void main(String[] args) {
+        start(Set.of());
+    }
+
+    /** Starts the gateway; services in {@code inProcess} are called over the in-process transport. */
+    public static void start(Set<String> inProcess) {
+        // Javalin would otherwise put all of Jetty on virtual threads, selectors
+        // included, which can leave every carrier pinned under load
+        ConcurrencyUtil.INSTANCE.setUseLoom(false);
+
         Javalin app = Javalin.create(config -> {
             config.plugins.enableCors(cors -> cors.add(it -> it.anyHost()));
             config.staticFiles.add(staticFileConfig -> {
                 staticFileConfig.directory = "/web";              // Folder inside src/main/resources
                 staticFileConfig.location = Location.CLASSPATH;   // Serve from classpath
             });
-        }).start(8080);
+            config.jetty.server(WebGateway::server);
+            // Called once every request has been answered, 404s and failed handlers included
+            config.requestLogger.http((ctx, millis) ->
+                    Metrics.httpFinished(ctx.method().name(), route(ctx), ctx.statusCode(), (long) (millis * 1_000_000)));
+        }).start(PORT);
+        app.before(ctx -> {
+            Metrics.httpStarted();
+            if (ServerThreads.overloaded()) {
+                throw new ServiceUnavailableResponse("Gateway is overloaded, please retry later");
+            }
+        });
 
-        ServiceBridge.registerRoutes(app);
+        ServiceBridge.registerRoutes(app, inProcess);
 
         System.out.println("✅ WebGateway running at http://localhost:8080");
     }
+
+    // The path template, so /applications/{id} is one series rather than one per id.
+    // Requests no route matched are served as static files or refused
+    private static String route(Context ctx) {
+        if (ServerThreads.overloaded()) {
+            return "overloaded";
+        }
+        String path = ctx.endpointHandlerPath();
+        if (path.startsWith("/")) {
+            return path;
+        }
+        return ctx.statusCode() == 404 || ctx.statusCode() == 405 ? "unmatched" : "static";
+    }
+
+    private static Server server() {
+        Server server = new Server(threadPool());
+        ServerConnector connector = new ServerConnector(server);
+        connector.setPort(PORT);
+        connector.setAcceptQueueSize(ACCEPT_QUEUE);
+        server.addConnector(connector);
+        return server;
+    }
+
+    // Selectors and acceptors always get platform threads; in virtual mode Jetty
+    // hands each request to the limited virtual thread executor instead
+    private static QueuedThreadPool threadPool() {
+        QueuedThreadPool pool = new QueuedThreadPool(250, 8, 60_000);
+        pool.setName("gateway");
+        Executor handlers = ServerThreads.executor("WebGateway");
+        if (handlers != null) {
+            pool.setVirtualThreadsExecutor(handlers);
+        }
+        return pool;
+    }
 }
@@ -0,0 +1,63 @@
+package org.example.recruitment.gateway;
+
+import io.grpc.stub.ClientCallStreamObserver;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.SuspendToken;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Couples a WebSocket to the gRPC request stream it feeds. Reading from the
+ * socket is suspended while the gRPC stream is not ready or too many requests
+ * are still waiting for a reply, and resumed once both clear, so a fast client
+ * is slowed down by TCP backpressure instead of being buffered in the gateway.
+ */
+class WsFlowControl {
+
+    private final Session session;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicReference<SuspendToken> suspended = new AtomicReference<>();
+    private volatile ClientCallStreamObserver<?> requests;
+
+    WsFlowControl(Session session, int maxInFlight) {
+        this.session = session;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /** Call from ClientResponseObserver.beforeStart. */
+    void attach(ClientCallStreamObserver<?> requests) {
+        this.requests = requests;
+        requests.setOnReadyHandler(this::maybeResume);
+    }
+
+    /** Call from the socket's message handler after forwarding a request. */
+    void sent() {
+        inFlight.incrementAndGet();
+        if (!canSend()) {
+            suspended.set(session.suspend());
+            // The stream may have become ready between the check and the suspend
+            maybeResume();
+        }
+    }
+
+    /** Call once per reply received. */
+    void answered() {
+        inFlight.decrementAndGet();
+        maybeResume();
+    }
+
+    private boolean canSend() {
+        return requests.isReady() && inFlight.get() < maxInFlight;
+    }
+
+    private void maybeResume() {
+        if (canSend()) {
+            SuspendToken token = suspended.getAndSet(null);
+            if (token != null) {
+                token.resume();
+            }
+        }
+    }
+}
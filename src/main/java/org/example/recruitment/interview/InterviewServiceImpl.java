@@ -3,117 +3,230 @@ package org.example.recruitment.interview;
 import interview.InterviewServiceGrpc;
 import interview.InterviewServiceOuterClass.*;
 import com.google.protobuf.Empty;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
-
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.*;
+import events.Events.InterviewEvent;
+import org.example.recruitment.server.SerialExecutor;
+import org.example.recruitment.storage.EventLog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class InterviewServiceImpl extends InterviewServiceGrpc.InterviewServiceImplBase {
 
-    private final List<Slot> availableSlots = new ArrayList<>();
-    private final List<ScheduledInterview> scheduledInterviews = new ArrayList<>();
+    private static final int DEFAULT_SLOT_LIMIT = 500;
+    private static final int MAX_SLOT_LIMIT = 5000;
+    private static final long UPCOMING_MINUTES = 2 * 24 * 60;
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final SlotBookingEngine slots = new SlotBookingEngine();
+    private final SlotCalendar calendar = new SlotCalendar(slots);
+    private final EventLog log;
+    // Slot ids of bookings replayed so far; a booking can appear in both a snapshot and the log after it
+    private final Set<String> replayedBookings = new HashSet<>();
 
     public InterviewServiceImpl() {
-        generateSlotsForTomorrow();
+        this(true);
+    }
+
+    public InterviewServiceImpl(boolean persistent) {
+        this(persistent, "");
+    }
+
+    /** Keeps its log apart from other instances' under the data directory, by {@code instance}. */
+    public InterviewServiceImpl(boolean persistent, String instance) {
+        // Same 09:00-14:00 half-hour slots as before, now generated per day on demand
+        calendar.addInterviewer(Interviewer.newBuilder()
+                .setInterviewerId("default")
+                .setName("Default interviewer")
+                .setDayStartMinute(9 * 60)
+                .setDayEndMinute(14 * 60)
+                .setSlotMinutes(30)
+                .setIncludeWeekends(true)
+                .build());
+        try {
+            log = persistent ? EventLog.open("interviews", instance, this::replay, this::snapshot) : EventLog.inMemory("interviews");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the interview event log", e);
+        }
+        replayedBookings.clear();
+        slots.attach(log);
+    }
+
+    /** Flushes the event log; call once the server has stopped taking calls. */
+    public void close() throws InterruptedException {
+        log.close();
+    }
+
+    private void replay(ByteBuffer buffer) throws IOException {
+        InterviewEvent event = InterviewEvent.parseFrom(buffer);
+        switch (event.getEventCase()) {
+            // A duplicate is simply refused as already registered
+            case INTERVIEWERADDED -> calendar.addInterviewer(event.getInterviewerAdded());
+            case INTERVIEWBOOKED -> {
+                ScheduledInterview interview = event.getInterviewBooked();
+                if (replayedBookings.add(interview.getSlotId())) {
+                    slots.restore(calendar.resolve(interview.getSlotId()), interview);
+                }
+            }
+            default -> System.err.println("Skipping unknown interview event " + event.getEventCase());
+        }
+    }
+
+    private void snapshot(EventLog.SnapshotWriter out) throws IOException {
+        for (Interviewer interviewer : calendar.interviewers()) {
+            out.write(InterviewEvent.newBuilder().setInterviewerAdded(interviewer).build());
+        }
+        for (ScheduledInterview interview : slots.scheduledInterviews()) {
+            out.write(InterviewEvent.newBuilder().setInterviewBooked(interview).build());
+        }
     }
 
-    private void generateSlotsForTomorrow() {
-        LocalDateTime base = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        for (int i = 0; i < 10; i++) {
-            String time = base.plusMinutes(i * 30).format(formatter);
-            Slot slot = Slot.newBuilder()
-                    .setSlotId("SLOT_" + i)
-                    .setTime(time)
-                    .setBooked(false)
-                    .build();
-            availableSlots.add(slot);
+    @Override
+    public void addInterviewer(Interviewer request, StreamObserver<InterviewResponse> responseObserver) {
+        String error = calendar.addInterviewer(request);
+        if (error != null) {
+            responseObserver.onNext(InterviewResponse.newBuilder().setSuccess(false).setMessage(error).build());
+            responseObserver.onCompleted();
+            return;
         }
+        log.append(InterviewEvent.newBuilder().setInterviewerAdded(request).build())
+                .whenComplete((ignored, failure) -> {
+                    responseObserver.onNext(InterviewResponse.newBuilder()
+                            .setSuccess(failure == null)
+                            .setMessage(failure == null
+                                    ? "Interviewer " + request.getInterviewerId() + " added"
+                                    : "Added, but could not be persisted: " + failure.getMessage())
+                            .build());
+                    responseObserver.onCompleted();
+                });
     }
 
     @Override
     public void listAvailableSlots(Empty request, StreamObserver<SlotList> responseObserver) {
-        SlotList.Builder listBuilder = SlotList.newBuilder();
-        listBuilder.addAllSlots(availableSlots);
-        responseObserver.onNext(listBuilder.build());
+        long now = SlotCalendar.nowMinute();
+        responseObserver.onNext(SlotList.newBuilder()
+                .addAllSlots(calendar.freeSlots(now, now + UPCOMING_MINUTES, "", DEFAULT_SLOT_LIMIT))
+                .build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void listFreeSlots(SlotRangeQuery request, StreamObserver<SlotList> responseObserver) {
+        int limit = request.getLimit() <= 0 ? DEFAULT_SLOT_LIMIT : Math.min(request.getLimit(), MAX_SLOT_LIMIT);
+        long to = request.getToEpochMinute() == 0 ? Long.MAX_VALUE : request.getToEpochMinute();
+        responseObserver.onNext(SlotList.newBuilder()
+                .addAllSlots(calendar.freeSlots(request.getFromEpochMinute(), to, request.getInterviewerId(), limit))
+                .build());
         responseObserver.onCompleted();
     }
 
     @Override
     public void scheduleInterview(InterviewRequest request, StreamObserver<InterviewResponse> responseObserver) {
-        Optional<Slot> optionalSlot = availableSlots.stream()
-                .filter(s -> s.getSlotId().equals(request.getSlotId()) && !s.getBooked())
-                .findFirst();
+        book(request).thenAccept(response -> {
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        });
+    }
 
-        if (optionalSlot.isEmpty()) {
-            responseObserver.onNext(InterviewResponse.newBuilder()
+    @Override
+    public void scheduleInterviewBatch(InterviewBatchRequest request,
+                                       StreamObserver<InterviewBatchResponse> responseObserver) {
+        int size = request.getRequestsCount();
+        if (size > MAX_BATCH_SIZE) {
+            responseObserver.onNext(InterviewBatchResponse.newBuilder()
                     .setSuccess(false)
-                    .setMessage("Slot unavailable or already booked")
+                    .setMessage("Batch too large: " + size + " > " + MAX_BATCH_SIZE)
                     .build());
+            responseObserver.onCompleted();
+            return;
+        }
+
+        CompletableFuture<List<InterviewResponse>> booking;
+        if (request.getAtomic()) {
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = calendar.resolve(request.getRequests(i).getSlotId());
+            }
+            booking = slots.bookAll(keys, request.getRequestsList());
         } else {
-            Slot original = optionalSlot.get();
-            Slot updated = original.toBuilder().setBooked(true).build();
-            availableSlots.set(availableSlots.indexOf(original), updated);
-
-            ScheduledInterview interview = ScheduledInterview.newBuilder()
-                    .setCandidateName(request.getCandidateName())
-                    .setCandidateEmail(request.getCandidateEmail())
-                    .setJobId(request.getJobId())
-                    .setSlotId(request.getSlotId())
-                    .setTime(original.getTime())
-                    .build();
-            scheduledInterviews.add(interview);
-
-            responseObserver.onNext(InterviewResponse.newBuilder()
-                    .setSuccess(true)
-                    .setMessage("Interview scheduled at " + original.getTime())
-                    .build());
+            List<CompletableFuture<InterviewResponse>> results = new ArrayList<>(size);
+            for (InterviewRequest item : request.getRequestsList()) {
+                results.add(book(item));
+            }
+            booking = SlotBookingEngine.all(results);
         }
-        responseObserver.onCompleted();
+
+        booking.thenAccept(results -> {
+            int booked = (int) results.stream().filter(InterviewResponse::getSuccess).count();
+            responseObserver.onNext(InterviewBatchResponse.newBuilder()
+                    .setSuccess(booked == size)
+                    .setMessage("Booked " + booked + " of " + size)
+                    .addAllResults(results)
+                    .setBooked(booked)
+                    .build());
+            responseObserver.onCompleted();
+        });
     }
 
     @Override
     public void listScheduledInterviews(Empty request, StreamObserver<ScheduledInterviewList> responseObserver) {
         ScheduledInterviewList.Builder listBuilder = ScheduledInterviewList.newBuilder();
-        listBuilder.addAllInterviews(scheduledInterviews);
+        listBuilder.addAllInterviews(slots.scheduledInterviews());
         responseObserver.onNext(listBuilder.build());
         responseObserver.onCompleted();
     }
 
+    /**
+     * Manual inbound flow control: the next request is only pulled once the
+     * previous reply has been queued and the transport can take more, so a
+     * client that outpaces its reader is held back by HTTP/2 flow control
+     * instead of piling replies up in memory here.
+     */
     @Override
     public StreamObserver<InterviewRequest> scheduleInterviewStream(StreamObserver<InterviewResponse> responseObserver) {
+        var serverObserver = (ServerCallStreamObserver<InterviewResponse>) responseObserver;
+        serverObserver.disableAutoRequest();
+        // Replies complete on the event log's writer; they are sent from here instead, one at a time
+        SerialExecutor replies = new SerialExecutor(ForkJoinPool.commonPool());
+        // Whether a request(1) is outstanding; set by the onReady handler and the replies alike
+        AtomicBoolean requested = new AtomicBoolean();
+        serverObserver.setOnReadyHandler(() -> {
+            if (serverObserver.isReady() && requested.compareAndSet(false, true)) {
+                serverObserver.request(1);
+            }
+        });
+        serverObserver.setOnCancelHandler(() -> System.err.println("Scheduling stream cancelled by client"));
+
         return new StreamObserver<>() {
+            // The reply still waiting on the event log; the stream is only completed after it
+            CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+
             @Override
             public void onNext(InterviewRequest request) {
-                Optional<Slot> optionalSlot = availableSlots.stream()
-                        .filter(s -> s.getSlotId().equals(request.getSlotId()) && !s.getBooked())
-                        .findFirst();
-
-                if (optionalSlot.isEmpty()) {
-                    responseObserver.onNext(InterviewResponse.newBuilder()
-                            .setSuccess(false)
-                            .setMessage("Slot unavailable or already booked")
-                            .build());
-                } else {
-                    Slot original = optionalSlot.get();
-                    Slot updated = original.toBuilder().setBooked(true).build();
-                    availableSlots.set(availableSlots.indexOf(original), updated);
-
-                    ScheduledInterview interview = ScheduledInterview.newBuilder()
-                            .setCandidateName(request.getCandidateName())
-                            .setCandidateEmail(request.getCandidateEmail())
-                            .setJobId(request.getJobId())
-                            .setSlotId(request.getSlotId())
-                            .setTime(original.getTime())
-                            .build();
-                    scheduledInterviews.add(interview);
-
-                    responseObserver.onNext(InterviewResponse.newBuilder()
-                            .setSuccess(true)
-                            .setMessage("Interview scheduled at " + original.getTime())
-                            .build());
+                if (serverObserver.isCancelled()) {
+                    return;
                 }
+                pending = book(request).thenAcceptAsync(response -> {
+                    serverObserver.onNext(response.toBuilder().setRequestId(request.getRequestId()).build());
+                    if (serverObserver.isReady()) {
+                        serverObserver.request(1);
+                        return;
+                    }
+                    requested.set(false);
+                    // onReady may have fired before the flag was cleared, and found it still set
+                    if (serverObserver.isReady() && requested.compareAndSet(false, true)) {
+                        serverObserver.request(1);
+                    }
+                }, replies);
             }
 
             @Override
@@ -123,8 +236,13 @@ public class InterviewServiceImpl extends InterviewServiceGrpc.InterviewServiceI
 
             @Override
             public void onCompleted() {
-                responseObserver.onCompleted();
+                pending.thenRunAsync(responseObserver::onCompleted, replies);
             }
         };
     }
+
+    private CompletableFuture<InterviewResponse> book(InterviewRequest request) {
+        long key = calendar.resolve(request.getSlotId());
+        return key < 0 ? CompletableFuture.completedFuture(SlotBookingEngine.unavailable()) : slots.book(key, request);
+    }
 }
@@ -0,0 +1,115 @@
+package org.example.recruitment.interview;
+
+import interview.InterviewServiceOuterClass.Interviewer;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * One interviewer's working-hours rule plus the slots generated from it so far.
+ * Days are materialized on first use, never up front, so a calendar costs
+ * nothing until someone queries or books into it. Days before today are
+ * dropped again whenever a new day is generated.
+ */
+class InterviewerCalendar {
+
+    final Interviewer definition;
+    final String id;
+    final int index;
+    final ZoneId zone;
+    final int dayStartMinute;
+    final int dayEndMinute;
+    final int slotMinutes;
+    final boolean includeWeekends;
+    private final DateTimeFormatter formatter;
+
+    // epoch minute -> free slot, for per-interviewer range queries
+    final ConcurrentNavigableMap<Long, SlotBookingEngine.SlotState> freeSlots = new ConcurrentSkipListMap<>();
+    // epoch day -> generated
+    private final ConcurrentNavigableMap<Long, Boolean> materializedDays = new ConcurrentSkipListMap<>();
+
+    InterviewerCalendar(Interviewer definition, int index) {
+        this.definition = definition;
+        this.id = definition.getInterviewerId();
+        this.index = index;
+        this.zone = definition.getZoneId().isEmpty() ? ZoneId.systemDefault() : ZoneId.of(definition.getZoneId());
+        this.dayStartMinute = definition.getDayStartMinute();
+        this.dayEndMinute = definition.getDayEndMinute();
+        this.slotMinutes = definition.getSlotMinutes();
+        this.includeWeekends = definition.getIncludeWeekends();
+        this.formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(zone);
+    }
+
+    /** Generates the day's slots into the engine exactly once, even under concurrent callers. */
+    void materialize(LocalDate day, SlotBookingEngine engine) {
+        if (materializedDays.containsKey(day.toEpochDay())) {
+            return;
+        }
+        materializedDays.computeIfAbsent(day.toEpochDay(), d -> {
+            if (worksOn(day)) {
+                for (int m = dayStartMinute; m + slotMinutes <= dayEndMinute; m += slotMinutes) {
+                    long start = slotStart(day, m);
+                    // A wall-clock time skipped by a DST change has no slot
+                    if (isSlotStart(start)) {
+                        engine.addSlot(this, start);
+                    }
+                }
+            }
+            return Boolean.TRUE;
+        });
+        prune(engine);
+    }
+
+    // Past days can no longer be listed or booked, so their slots would only pile up;
+    // bookings in them are still kept by the engine as scheduled interviews
+    private void prune(SlotBookingEngine engine) {
+        long today = LocalDate.now(zone).toEpochDay();
+        for (Long day : materializedDays.headMap(today).keySet()) {
+            if (materializedDays.remove(day) != null) {
+                for (int m = dayStartMinute; m + slotMinutes <= dayEndMinute; m += slotMinutes) {
+                    engine.removeSlot(this, slotStart(LocalDate.ofEpochDay(day), m));
+                }
+            }
+        }
+    }
+
+    // By wall-clock time: on a DST change the day is not 24 hours long, so minutes after
+    // midnight would put the slots an hour off
+    private long slotStart(LocalDate day, int minuteOfDay) {
+        return day.atTime(LocalTime.ofSecondOfDay(minuteOfDay * 60L)).atZone(zone).toEpochSecond() / 60;
+    }
+
+    /** Whether a slot of this calendar would start at the given minute. */
+    boolean isSlotStart(long epochMinute) {
+        ZonedDateTime time = Instant.ofEpochSecond(epochMinute * 60).atZone(zone);
+        int minuteOfDay = time.getHour() * 60 + time.getMinute();
+        return worksOn(time.toLocalDate())
+                && minuteOfDay >= dayStartMinute
+                && minuteOfDay + slotMinutes <= dayEndMinute
+                && (minuteOfDay - dayStartMinute) % slotMinutes == 0;
+    }
+
+    LocalDate dayOf(long epochMinute) {
+        return Instant.ofEpochSecond(epochMinute * 60).atZone(zone).toLocalDate();
+    }
+
+    String slotId(long epochMinute) {
+        return id + "@" + epochMinute;
+    }
+
+    String format(long epochMinute) {
+        return formatter.format(Instant.ofEpochSecond(epochMinute * 60));
+    }
+
+    private boolean worksOn(LocalDate day) {
+        DayOfWeek dow = day.getDayOfWeek();
+        return includeWeekends || (dow != DayOfWeek.SATURDAY && dow != DayOfWeek.SUNDAY);
+    }
+}
@@ -0,0 +1,235 @@
+package org.example.recruitment.interview;
+
+import events.Events.InterviewEvent;
+import interview.InterviewServiceOuterClass.InterviewRequest;
+import interview.InterviewServiceOuterClass.InterviewResponse;
+import interview.InterviewServiceOuterClass.ScheduledInterview;
+import interview.InterviewServiceOuterClass.Slot;
+import org.example.recruitment.storage.EventLog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Slots indexed by id with a compare-and-set reservation: whichever booking
+ * swaps the slot's reservation from null wins, every other concurrent attempt
+ * sees it taken. Free slots are also kept in a time-ordered concurrent skip list
+ * keyed by epoch minute, so a time-window query is a sub-map view rather than a
+ * scan, however many slots exist.
+ */
+class SlotBookingEngine {
+
+    // Slot keys pack the start minute above the interviewer index, so they sort by time first
+    static final int INTERVIEWER_BITS = 20;
+
+    private final ConcurrentMap<Long, SlotState> slots = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Long, SlotState> freeSlots = new ConcurrentSkipListMap<>();
+    private final Queue<ScheduledInterview> scheduledInterviews = new ConcurrentLinkedQueue<>();
+    // Replaced once the event log has been replayed, so replayed bookings are not logged again
+    private volatile EventLog log = EventLog.inMemory("interviews");
+
+    static final class SlotState {
+        final InterviewerCalendar calendar;
+        final long epochMinute;
+        final AtomicReference<ScheduledInterview> booking = new AtomicReference<>();
+
+        SlotState(InterviewerCalendar calendar, long epochMinute) {
+            this.calendar = calendar;
+            this.epochMinute = epochMinute;
+        }
+
+        // Built on demand; keeping a proto per slot would dominate memory at calendar scale
+        Slot toProto() {
+            return Slot.newBuilder()
+                    .setSlotId(calendar.slotId(epochMinute))
+                    .setTime(calendar.format(epochMinute))
+                    .setBooked(booking.get() != null)
+                    .setInterviewerId(calendar.id)
+                    .setStartEpochMinute(epochMinute)
+                    .setDurationMinutes(calendar.slotMinutes)
+                    .build();
+        }
+    }
+
+    static long key(long epochMinute, int interviewerIndex) {
+        return (epochMinute << INTERVIEWER_BITS) | interviewerIndex;
+    }
+
+    void addSlot(InterviewerCalendar calendar, long epochMinute) {
+        SlotState state = new SlotState(calendar, epochMinute);
+        long key = key(epochMinute, calendar.index);
+        if (slots.putIfAbsent(key, state) == null) {
+            freeSlots.put(key, state);
+            calendar.freeSlots.put(epochMinute, state);
+        }
+    }
+
+    /** Forgets a slot that has passed, booked or not. */
+    void removeSlot(InterviewerCalendar calendar, long epochMinute) {
+        long key = key(epochMinute, calendar.index);
+        SlotState state = slots.remove(key);
+        if (state != null) {
+            freeSlots.remove(key, state);
+            calendar.freeSlots.remove(epochMinute, state);
+        }
+    }
+
+    void attach(EventLog log) {
+        this.log = log;
+    }
+
+    /** Completes once the booking is in the event log; never completes exceptionally. */
+    CompletableFuture<InterviewResponse> book(long key, InterviewRequest request) {
+        ScheduledInterview interview = reserve(key, request);
+        if (interview == null) {
+            return CompletableFuture.completedFuture(unavailable());
+        }
+        scheduledInterviews.add(interview);
+        return durable(interview);
+    }
+
+    /**
+     * Books every request or none of them; keys below zero are slots that could
+     * not be resolved. Slots are reserved in order and, if one is taken, the
+     * ones already reserved are released again. A concurrent booker may see
+     * such a slot briefly taken, but no interview is ever recorded for it.
+     *
+     * <p>Once all are reserved each booking is logged on its own, and each
+     * result says whether that one was persisted: the others may already be
+     * in the log, so undoing them all on one failure would not hold across a
+     * restart.
+     */
+    CompletableFuture<List<InterviewResponse>> bookAll(long[] keys, List<InterviewRequest> requests) {
+        int failed = -1;
+        Set<Long> distinct = new HashSet<>();
+        for (int i = 0; i < keys.length && failed < 0; i++) {
+            if (keys[i] < 0 || !distinct.add(keys[i])) {
+                failed = i;
+            }
+        }
+        ScheduledInterview[] reserved = new ScheduledInterview[keys.length];
+        for (int i = 0; i < keys.length && failed < 0; i++) {
+            reserved[i] = reserve(keys[i], requests.get(i));
+            if (reserved[i] == null) {
+                failed = i;
+                for (int j = 0; j < i; j++) {
+                    release(keys[j], reserved[j]);
+                }
+            }
+        }
+
+        List<CompletableFuture<InterviewResponse>> results = new ArrayList<>(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            if (failed < 0) {
+                scheduledInterviews.add(reserved[i]);
+                results.add(durable(reserved[i]));
+            } else if (i == failed) {
+                results.add(CompletableFuture.completedFuture(unavailable()));
+            } else {
+                results.add(CompletableFuture.completedFuture(InterviewResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage("Not booked: slot " + requests.get(failed).getSlotId() + " is unavailable")
+                        .build()));
+            }
+        }
+        return all(results);
+    }
+
+    /** The results, in order, once every one of them is in. */
+    static CompletableFuture<List<InterviewResponse>> all(List<CompletableFuture<InterviewResponse>> results) {
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> results.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Puts back a booking read from the event log. Slots that have passed, or
+     * are beyond the calendar's horizon, come back with key -1: the interview
+     * is still listed, there is just no slot left to mark.
+     */
+    void restore(long key, ScheduledInterview interview) {
+        SlotState state = key < 0 ? null : slots.get(key);
+        if (state != null && state.booking.compareAndSet(null, interview)) {
+            freeSlots.remove(key);
+            state.calendar.freeSlots.remove(state.epochMinute);
+        }
+        scheduledInterviews.add(interview);
+    }
+
+    // Answers once the booking is in the event log, without waiting on the sync; on failure the
+    // booking stands in memory only, so the caller is told it may not survive a restart
+    private CompletableFuture<InterviewResponse> durable(ScheduledInterview interview) {
+        return log.append(booked(interview)).handle((ignored, failure) -> failure == null
+                ? scheduled(interview)
+                : InterviewResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage("Booked, but could not be persisted: " + failure.getMessage())
+                        .build());
+    }
+
+    private static InterviewEvent booked(ScheduledInterview interview) {
+        return InterviewEvent.newBuilder().setInterviewBooked(interview).build();
+    }
+
+    // Claims the slot without recording the interview yet; null if it does not exist or is taken
+    private ScheduledInterview reserve(long key, InterviewRequest request) {
+        SlotState state = slots.get(key);
+        if (state == null) {
+            return null;
+        }
+        ScheduledInterview interview = ScheduledInterview.newBuilder()
+                .setCandidateName(request.getCandidateName())
+                .setCandidateEmail(request.getCandidateEmail())
+                .setJobId(request.getJobId())
+                .setSlotId(request.getSlotId())
+                .setTime(state.calendar.format(state.epochMinute))
+                .build();
+        if (!state.booking.compareAndSet(null, interview)) {
+            return null;
+        }
+        freeSlots.remove(key);
+        state.calendar.freeSlots.remove(state.epochMinute);
+        return interview;
+    }
+
+    private void release(long key, ScheduledInterview interview) {
+        SlotState state = slots.get(key);
+        if (state.booking.compareAndSet(interview, null)) {
+            freeSlots.put(key, state);
+            state.calendar.freeSlots.put(state.epochMinute, state);
+        }
+    }
+
+    private static InterviewResponse scheduled(ScheduledInterview interview) {
+        return InterviewResponse.newBuilder()
+                .setSuccess(true)
+                .setMessage("Interview scheduled at " + interview.getTime())
+                .build();
+    }
+
+    static InterviewResponse unavailable() {
+        return InterviewResponse.newBuilder()
+                .setSuccess(false)
+                .setMessage("Slot unavailable or already booked")
+                .build();
+    }
+
+    /** Live, time-ordered view of free slots starting in [fromMinute, toMinute) across all interviewers. */
+    Collection<SlotState> freeBetween(long fromMinute, long toMinute) {
+        return freeSlots.subMap(key(fromMinute, 0), true, key(toMinute, 0), false).values();
+    }
+
+    Collection<ScheduledInterview> scheduledInterviews() {
+        return scheduledInterviews;
+    }
+}
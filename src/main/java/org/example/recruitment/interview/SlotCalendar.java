@@ -0,0 +1,129 @@
+package org.example.recruitment.interview;
+
+import interview.InterviewServiceOuterClass.Interviewer;
+import interview.InterviewServiceOuterClass.Slot;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interviewer calendars and the lazily generated slots behind them. Queries
+ * and bookings materialize only the days they touch; a single query may span
+ * at most {@link #MAX_WINDOW_DAYS} and nothing is generated past
+ * {@link #HORIZON_DAYS} from now.
+ */
+class SlotCalendar {
+
+    static final int MAX_WINDOW_DAYS = 31;
+    static final int HORIZON_DAYS = 365;
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    private final SlotBookingEngine engine;
+    private final ConcurrentMap<String, InterviewerCalendar> interviewers = new ConcurrentHashMap<>();
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    SlotCalendar(SlotBookingEngine engine) {
+        this.engine = engine;
+    }
+
+    /** Returns null on success, otherwise why the definition was rejected. */
+    String addInterviewer(Interviewer definition) {
+        if (definition.getInterviewerId().isEmpty() || definition.getInterviewerId().contains("@")) {
+            return "Interviewer id must be non-empty and must not contain '@'";
+        }
+        if (definition.getSlotMinutes() <= 0
+                || definition.getDayStartMinute() < 0
+                || definition.getDayEndMinute() > MINUTES_PER_DAY
+                || definition.getDayStartMinute() + definition.getSlotMinutes() > definition.getDayEndMinute()) {
+            return "Working hours must fit at least one slot within a day";
+        }
+        if (interviewers.containsKey(definition.getInterviewerId())) {
+            return "Interviewer " + definition.getInterviewerId() + " already registered";
+        }
+        int index = nextIndex.getAndIncrement();
+        if (index >= 1 << SlotBookingEngine.INTERVIEWER_BITS) {
+            return "Too many interviewers";
+        }
+        InterviewerCalendar calendar;
+        try {
+            calendar = new InterviewerCalendar(definition, index);
+        } catch (java.time.DateTimeException e) {
+            return "Unknown zone " + definition.getZoneId();
+        }
+        return interviewers.putIfAbsent(calendar.id, calendar) == null
+                ? null
+                : "Interviewer " + definition.getInterviewerId() + " already registered";
+    }
+
+    /** Every registered interviewer's definition. */
+    List<Interviewer> interviewers() {
+        return interviewers.values().stream().map(c -> c.definition).toList();
+    }
+
+    /**
+     * Maps a slot id ("interviewerId@epochMinute") to its engine key, generating
+     * the slot's day if needed. Returns -1 if no such bookable slot exists.
+     */
+    long resolve(String slotId) {
+        int at = slotId.lastIndexOf('@');
+        if (at <= 0) {
+            return -1;
+        }
+        InterviewerCalendar calendar = interviewers.get(slotId.substring(0, at));
+        long epochMinute;
+        try {
+            epochMinute = Long.parseLong(slotId.substring(at + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        long now = nowMinute();
+        if (calendar == null || epochMinute < now || epochMinute > now + HORIZON_DAYS * MINUTES_PER_DAY
+                || !calendar.isSlotStart(epochMinute)) {
+            return -1;
+        }
+        calendar.materialize(calendar.dayOf(epochMinute), engine);
+        return SlotBookingEngine.key(epochMinute, calendar.index);
+    }
+
+    /** Free slots starting in [fromMinute, toMinute), optionally for one interviewer, in time order. */
+    List<Slot> freeSlots(long fromMinute, long toMinute, String interviewerId, int limit) {
+        long now = nowMinute();
+        long from = Math.max(fromMinute, now);
+        long to = Math.min(toMinute, Math.min(from + MAX_WINDOW_DAYS * MINUTES_PER_DAY,
+                now + HORIZON_DAYS * MINUTES_PER_DAY));
+        if (to <= from) {
+            return List.of();
+        }
+
+        Collection<SlotBookingEngine.SlotState> free;
+        if (!interviewerId.isEmpty()) {
+            InterviewerCalendar calendar = interviewers.get(interviewerId);
+            if (calendar == null) {
+                return List.of();
+            }
+            materialize(calendar, from, to);
+            free = calendar.freeSlots.subMap(from, true, to, false).values();
+        } else {
+            for (InterviewerCalendar calendar : interviewers.values()) {
+                materialize(calendar, from, to);
+            }
+            free = engine.freeBetween(from, to);
+        }
+        return free.stream().limit(limit).map(SlotBookingEngine.SlotState::toProto).toList();
+    }
+
+    private void materialize(InterviewerCalendar calendar, long from, long to) {
+        LocalDate last = calendar.dayOf(to - 1);
+        for (LocalDate day = calendar.dayOf(from); !day.isAfter(last); day = day.plusDays(1)) {
+            calendar.materialize(day, engine);
+        }
+    }
+
+    static long nowMinute() {
+        return System.currentTimeMillis() / 60_000;
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.recruitment.job;
+
+import job.JobServiceOuterClass.Application;
+import job.JobServiceOuterClass.ScreeningStatus;
+
+import java.util.concurrent.CompletableFuture;
+
+class ApplicationRecord {
+    // Both set by assign for a new application, once it has been accepted
+    volatile int applicationId;
+    final int jobId;
+    final String candidateName;
+    final String candidateEmail;
+    // Handle into the job store's ResumeStore; the text itself lives off-heap
+    volatile long resume;
+    // Identifies the resume's content, so an identical resubmission can be spotted
+    final long resumeHash;
+    // Client-chosen; empty if none was given
+    final String idempotencyKey;
+    private final ScreeningListener listener;
+
+    // Swapped as a whole so readers never see a score from one result with the status of another
+    private volatile Screening screening = Screening.PENDING;
+    // Set if the application could not be logged; it then takes no further results
+    private volatile boolean withdrawn;
+    private final CompletableFuture<ApplicationRecord> screened = new CompletableFuture<>();
+
+    // revision is the job's criteriaRevision the result was scored against
+    record Screening(ScreeningStatus status, int score, String feedback, int revision) {
+        static final Screening PENDING = new Screening(ScreeningStatus.PENDING, 0, "Screening in progress", -1);
+    }
+
+    /** Told of every screening change, in order, while the record's lock is held. */
+    interface ScreeningListener {
+        void changed(ApplicationRecord record, Screening from, Screening to);
+    }
+
+    ApplicationRecord(int applicationId, int jobId, String name, String email, long resume,
+                      long resumeHash, String idempotencyKey, ScreeningListener listener) {
+        this.applicationId = applicationId;
+        this.jobId = jobId;
+        this.candidateName = name;
+        this.candidateEmail = email;
+        this.resume = resume;
+        this.resumeHash = resumeHash;
+        this.idempotencyKey = idempotencyKey;
+        this.listener = listener;
+    }
+
+    /** A new application, claimed before it has an id or a stored resume; see {@link #assign}. */
+    ApplicationRecord(int jobId, String name, String email, long resumeHash, String idempotencyKey,
+                      ScreeningListener listener) {
+        this(0, jobId, name, email, 0, resumeHash, idempotencyKey, listener);
+    }
+
+    /** Called once, before the record is queued or added to the store. */
+    void assign(int applicationId, long resume) {
+        this.resume = resume;
+        this.applicationId = applicationId;
+    }
+
+    Screening screening() {
+        return screening;
+    }
+
+    /** Completes once screening has produced a score or failed. */
+    CompletableFuture<ApplicationRecord> screened() {
+        return screened;
+    }
+
+    /** False if a result for a newer criteria revision is already in place. */
+    boolean complete(int score, String feedback, int revision) {
+        return update(new Screening(ScreeningStatus.SCREENED, score, feedback, revision));
+    }
+
+    boolean fail(String reason, int revision) {
+        return update(new Screening(ScreeningStatus.FAILED, 0, reason, revision));
+    }
+
+    boolean withdrawn() {
+        return withdrawn;
+    }
+
+    /**
+     * Takes back an application that was never made durable: it leaves its
+     * job's ranking, and results that arrive later are dropped.
+     */
+    synchronized void withdraw() {
+        Screening current = screening;
+        withdrawn = true;
+        screening = Screening.PENDING;
+        listener.changed(this, current, Screening.PENDING);
+    }
+
+    /** Puts back a result read from the event log. */
+    void restore(Screening screening) {
+        update(screening);
+    }
+
+    // Writers are serialized so the listener sees each change exactly once, in
+    // order; readers still just read the reference
+    private synchronized boolean update(Screening next) {
+        Screening current = screening;
+        if (withdrawn || current.revision() > next.revision()) {
+            return false;
+        }
+        screening = next;
+        listener.changed(this, current, next);
+        if (next.status() != ScreeningStatus.PENDING) {
+            screened.complete(this);
+        }
+        return true;
+    }
+
+    Application toProto() {
+        Screening s = screening;
+        return Application.newBuilder()
+                .setApplicationId(applicationId)
+                .setCandidateName(candidateName)
+                .setCandidateEmail(candidateEmail)
+                .setJobId(jobId)
+                .setScreeningScore(s.score())
+                .setScreeningFeedback(s.feedback())
+                .setStatus(s.status())
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.recruitment.job;
+
+import job.JobServiceOuterClass.ScreeningStatus;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * A job's screened applications ordered best first: highest score, then
+ * earliest application. Kept current by {@link ApplicationRecord} as results
+ * land, so the top k are the first k entries of a skip list, O(log n + k) to
+ * read, and no request ever sorts or scans the whole job.
+ *
+ * <p>Only SCREENED results are ranked; pending and failed applications have no
+ * score worth ranking on. Reads are lock-free; an application being re-scored
+ * while a read walks past it may be missed by that read.
+ */
+class CandidateRanking {
+
+    private record Entry(int score, int applicationId, ApplicationRecord record) {
+    }
+
+    private static final Comparator<Entry> BEST_FIRST = Comparator.comparingInt(Entry::score).reversed()
+            .thenComparingInt(Entry::applicationId);
+
+    private final NavigableSet<Entry> ranked = new ConcurrentSkipListSet<>(BEST_FIRST);
+
+    // Called by the record, serialized per record, for every screening state change
+    void move(ApplicationRecord record, ApplicationRecord.Screening from, ApplicationRecord.Screening to) {
+        if (from.status() == ScreeningStatus.SCREENED) {
+            ranked.remove(new Entry(from.score(), record.applicationId, record));
+        }
+        if (to.status() == ScreeningStatus.SCREENED) {
+            ranked.add(new Entry(to.score(), record.applicationId, record));
+        }
+    }
+
+    /** The k best screened applications, best first. */
+    List<ApplicationRecord> top(int k) {
+        List<ApplicationRecord> top = new ArrayList<>(Math.min(k, 64));
+        Iterator<Entry> it = ranked.iterator();
+        while (top.size() < k && it.hasNext()) {
+            top.add(it.next().record());
+        }
+        return top;
+    }
+}
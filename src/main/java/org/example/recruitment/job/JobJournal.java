@@ -0,0 +1,133 @@
+package org.example.recruitment.job;
+
+import events.Events.ApplicationScreened;
+import events.Events.ApplicationSubmitted;
+import events.Events.JobEvent;
+import job.JobServiceOuterClass.Job;
+import job.JobServiceOuterClass.ScreeningStatus;
+import org.example.recruitment.storage.EventLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Keeps the job service's state in the "jobs" {@link EventLog}: jobs as they
+ * are created or revised, applications as they are submitted, and every
+ * screening result. Opening it replays the log into the store.
+ */
+class JobJournal {
+
+    private final JobStore store;
+    private final EventLog log;
+    // Screening can finish, and be logged, before its application is; such results wait here during replay
+    private final Map<Integer, ApplicationScreened> earlyResults = new HashMap<>();
+
+    /** Opens the journal of a store that is still empty. */
+    interface Opener {
+        JobJournal open(JobStore store) throws IOException;
+    }
+
+    JobJournal(JobStore store, String instance) throws IOException {
+        this.store = store;
+        this.log = EventLog.open("jobs", instance, this::replay, this::snapshot);
+        earlyResults.clear();
+        store.attach(this);
+    }
+
+    CompletableFuture<Void> jobSaved(Job job) {
+        return log.append(JobEvent.newBuilder().setJobSaved(job).build());
+    }
+
+    CompletableFuture<Void> applicationSubmitted(ApplicationRecord record) {
+        return log.append(JobEvent.newBuilder().setApplicationSubmitted(submitted(record)).build());
+    }
+
+    void screened(ApplicationRecord record, ApplicationRecord.Screening screening) {
+        if (screening.status() != ScreeningStatus.PENDING) {
+            log.append(JobEvent.newBuilder().setApplicationScreened(screened(record.applicationId, screening)).build());
+        }
+    }
+
+    Map<String, Object> stats() {
+        return log.stats();
+    }
+
+    void close() throws InterruptedException {
+        log.close();
+    }
+
+    private void replay(ByteBuffer buffer) throws IOException {
+        JobEvent event = JobEvent.parseFrom(buffer);
+        switch (event.getEventCase()) {
+            case JOBSAVED -> store.restoreJob(event.getJobSaved());
+            case APPLICATIONSUBMITTED -> {
+                ApplicationSubmitted a = event.getApplicationSubmitted();
+                ApplicationRecord record = new ApplicationRecord(a.getApplicationId(), a.getJobId(),
+                        a.getCandidateName(), a.getCandidateEmail(), store.resumes().write(a.getResumeTextBytes()),
+                        a.getResumeHash(), a.getIdempotencyKey(), store.screeningListener(a.getJobId()));
+                if (store.restoreApplication(record)) {
+                    ApplicationScreened early = earlyResults.remove(a.getApplicationId());
+                    if (early != null) {
+                        restore(record, early);
+                    }
+                }
+            }
+            case APPLICATIONSCREENED -> {
+                ApplicationScreened s = event.getApplicationScreened();
+                ApplicationRecord record = store.application(s.getApplicationId());
+                if (record == null) {
+                    earlyResults.put(s.getApplicationId(), s);
+                } else {
+                    restore(record, s);
+                }
+            }
+            default -> System.err.println("Skipping unknown job event " + event.getEventCase());
+        }
+    }
+
+    private static void restore(ApplicationRecord record, ApplicationScreened s) {
+        record.restore(new ApplicationRecord.Screening(s.getStatus(), s.getScore(), s.getFeedback(), s.getRevision()));
+    }
+
+    private void snapshot(EventLog.SnapshotWriter out) throws IOException {
+        for (Job job : store.jobs()) {
+            out.write(JobEvent.newBuilder().setJobSaved(job).build());
+        }
+        Iterator<ApplicationRecord> records = store.applicationsAfter(0, "", 0).iterator();
+        while (records.hasNext()) {
+            ApplicationRecord record = records.next();
+            out.write(JobEvent.newBuilder().setApplicationSubmitted(submitted(record)).build());
+            ApplicationRecord.Screening screening = record.screening();
+            if (screening.status() != ScreeningStatus.PENDING) {
+                out.write(JobEvent.newBuilder()
+                        .setApplicationScreened(screened(record.applicationId, screening)).build());
+            }
+        }
+    }
+
+    private ApplicationSubmitted submitted(ApplicationRecord record) {
+        return ApplicationSubmitted.newBuilder()
+                .setApplicationId(record.applicationId)
+                .setJobId(record.jobId)
+                .setCandidateName(record.candidateName)
+                .setCandidateEmail(record.candidateEmail)
+                .setResumeTextBytes(store.resumes().read(record.resume))
+                .setIdempotencyKey(record.idempotencyKey)
+                .setResumeHash(record.resumeHash)
+                .build();
+    }
+
+    private static ApplicationScreened screened(int applicationId, ApplicationRecord.Screening screening) {
+        return ApplicationScreened.newBuilder()
+                .setApplicationId(applicationId)
+                .setStatus(screening.status())
+                .setScore(screening.score())
+                .setFeedback(screening.feedback())
+                .setRevision(screening.revision())
+                .build();
+    }
+}
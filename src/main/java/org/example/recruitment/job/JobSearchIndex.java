@@ -0,0 +1,273 @@
+package org.example.recruitment.job;
+
+import job.JobServiceOuterClass.Job;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Inverted index over job titles, descriptions and companies, ranked with
+ * BM25. Terms live in a sorted map, so the last query term also matches as a
+ * prefix ("kube" finds "kubernetes") by walking a sub-map.
+ *
+ * <p>Each term's postings are one byte array of varint-encoded (id gap,
+ * frequency) pairs. Job ids are sequential, so gaps are small and most postings
+ * take two bytes, with no object per posting. Title matches count three times
+ * and company matches twice, so a word in the title outranks the same word deep
+ * in a description.
+ *
+ * <p>Jobs are added under a lock, one at a time; searches never lock. Postings
+ * only grow by appending past the length a reader has already seen, and every
+ * block is published through a volatile write once complete.
+ */
+class JobSearchIndex {
+
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int TITLE_BOOST = 3;
+    private static final int COMPANY_BOOST = 2;
+
+    // Pooled rather than per thread: under virtual threads every search has a thread of its own
+    private static final Pool<float[]> SCRATCH = new Pool<>(() -> new float[0]);
+
+    private final NavigableMap<String, Postings> terms = new ConcurrentSkipListMap<>();
+    // Token count per job id, 0 for ids never indexed
+    private volatile int[] lengths = new int[1024];
+    private volatile int jobCount;
+    private volatile long totalLength;
+
+    record Hit(int jobId, float score) {
+    }
+
+    // Heap order: lowest score first, and on ties the later job, so the earlier one is kept
+    private static final Comparator<Hit> BEST_LAST = Comparator.comparingDouble(Hit::score)
+            .thenComparing(Comparator.comparingInt(Hit::jobId).reversed());
+
+    // Immutable view of a term's postings: bytes [0, size) never change once published
+    private record Block(byte[] bytes, int size, int jobs, int lastJobId) {
+    }
+
+    private static final class Postings {
+        volatile Block block = new Block(new byte[8], 0, 0, 0);
+    }
+
+    synchronized void add(Job job) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = count(job.getTitle(), TITLE_BOOST, frequencies)
+                + count(job.getCompany(), COMPANY_BOOST, frequencies)
+                + count(job.getDescription(), 1, frequencies);
+        int id = job.getId();
+        if (id >= lengths.length) {
+            lengths = Arrays.copyOf(lengths, Math.max(id + 1, lengths.length * 2));
+        }
+        lengths[id] = length;
+        totalLength += length;
+        jobCount++;
+        frequencies.forEach((term, tf) -> append(terms.computeIfAbsent(term, t -> new Postings()), id, tf));
+    }
+
+    /**
+     * The best matches for the query, best first. Terms are OR-ed; the last one
+     * also matches every indexed term it is a prefix of.
+     */
+    List<Hit> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || jobCount == 0) {
+            return List.of();
+        }
+        List<Block> blocks = new ArrayList<>();
+        String last = tokens.get(tokens.size() - 1);
+        for (String token : tokens.subList(0, tokens.size() - 1)) {
+            Postings postings = terms.get(token);
+            if (postings != null) {
+                blocks.add(postings.block);
+            }
+        }
+        int expansions = 0;
+        for (Postings postings : terms.subMap(last, true, last + Character.MAX_VALUE, false).values()) {
+            if (expansions++ == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            blocks.add(postings.block);
+        }
+
+        // Read after the blocks, so it covers every id they contain
+        int[] lengths = this.lengths;
+        int jobs = jobCount;
+        float averageLength = Math.max(1f, (float) totalLength / jobs);
+        // Dense accumulator by job id, borrowed: no boxing and no garbage, and since ids are
+        // sequential little of it goes unused. Only given back once it is all zero again
+        float[] scores = SCRATCH.borrow();
+        if (scores.length < lengths.length) {
+            scores = new float[lengths.length];
+        }
+        int low = Integer.MAX_VALUE;
+        int high = 0;
+        for (Block block : blocks) {
+            if (block.jobs() > 0) {
+                low = Math.min(low, score(block, jobs, lengths, averageLength, scores));
+                high = Math.max(high, block.lastJobId());
+            }
+        }
+
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, BEST_LAST);
+        float threshold = 0;
+        for (int id = low; id <= high; id++) {
+            float score = scores[id];
+            if (score > threshold) {
+                best.add(new Hit(id, score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+                if (best.size() == limit) {
+                    threshold = best.peek().score();
+                }
+            }
+        }
+        if (low <= high) {
+            Arrays.fill(scores, low, high + 1, 0f);
+        }
+        SCRATCH.release(scores);
+        Hit[] hits = new Hit[best.size()];
+        for (int i = hits.length - 1; i >= 0; i--) {
+            hits[i] = best.poll();
+        }
+        return List.of(hits);
+    }
+
+    // Adds the term's BM25 contribution for every job in the block; returns the first job id
+    private static int score(Block block, int jobs, int[] lengths, float averageLength, float[] scores) {
+        float idf = (float) Math.log(1 + (jobs - block.jobs() + 0.5) / (block.jobs() + 0.5));
+        float weight = idf * (K1 + 1);
+        float base = K1 * (1 - B);
+        float perToken = K1 * B / averageLength;
+        byte[] bytes = block.bytes();
+        int size = block.size();
+        int first = -1;
+        int id = 0;
+        for (int pos = 0; pos < size; ) {
+            int gap = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[pos++];
+                gap |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            int tf = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[pos++];
+                tf |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            id += gap;
+            if (first < 0) {
+                first = id;
+            }
+            scores[id] += weight * tf / (tf + base + perToken * lengths[id]);
+        }
+        return first;
+    }
+
+    private static void append(Postings postings, int id, int tf) {
+        Block block = postings.block;
+        if (id <= block.lastJobId()) {
+            // Ids are handed out before jobs are indexed, so a concurrent create can
+            // arrive late; rebuild this term's postings with the id in place
+            postings.block = insert(block, id, tf);
+            return;
+        }
+        byte[] bytes = block.bytes();
+        if (bytes.length - block.size() < 10) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        int size = writeVarint(bytes, block.size(), id - block.lastJobId());
+        size = writeVarint(bytes, size, tf);
+        postings.block = new Block(bytes, size, block.jobs() + 1, id);
+    }
+
+    private static Block insert(Block block, int id, int tf) {
+        List<int[]> entries = new ArrayList<>(block.jobs() + 1);
+        byte[] bytes = block.bytes();
+        int current = 0;
+        for (int pos = 0; pos < block.size(); ) {
+            int[] gap = readVarint(bytes, pos);
+            int[] freq = readVarint(bytes, gap[1]);
+            current += gap[0];
+            pos = freq[1];
+            entries.add(new int[]{current, freq[0]});
+        }
+        entries.add(new int[]{id, tf});
+        entries.sort((a, b) -> Integer.compare(a[0], b[0]));
+        byte[] out = new byte[Math.max(8, bytes.length + 10)];
+        int size = 0;
+        int previous = 0;
+        for (int[] entry : entries) {
+            size = writeVarint(out, size, entry[0] - previous);
+            size = writeVarint(out, size, entry[1]);
+            previous = entry[0];
+        }
+        return new Block(out, size, entries.size(), previous);
+    }
+
+    private static int writeVarint(byte[] bytes, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            bytes[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[pos++] = (byte) value;
+        return pos;
+    }
+
+    // {value, position after it}
+    private static int[] readVarint(byte[] bytes, int pos) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = bytes[pos++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return new int[]{value, pos};
+            }
+        }
+    }
+
+    private static int count(String text, int boost, Map<String, Integer> frequencies) {
+        List<String> tokens = tokenize(text);
+        for (String token : tokens) {
+            frequencies.merge(token, boost, Integer::sum);
+        }
+        return tokens.size();
+    }
+
+    // Lowercased runs of letters and digits; '+' and '#' are kept so "c++" and "c#" stay searchable
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && isWordChar(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '+' || c == '#';
+    }
+}
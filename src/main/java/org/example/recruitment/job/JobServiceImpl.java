@@ -1,44 +1,85 @@
 package org.example.recruitment.job;
 
+import com.google.protobuf.ByteString;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 
+import org.example.recruitment.metrics.Metrics;
+import org.example.recruitment.registry.ChannelManager;
+import org.example.recruitment.registry.DiscoveryCache;
+import org.example.recruitment.registry.ServiceRegistration;
+import org.example.recruitment.server.ServerThreads;
 import job.JobServiceGrpc;
 import job.JobServiceOuterClass.*;
-import registry.ServiceRegistryGrpc;
-import registry.ServiceRegistryOuterClass.*;
-import screening.CandidateScreeningServiceGrpc;
-import screening.CandidateScreeningServiceOuterClass.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class JobServiceImpl extends JobServiceGrpc.JobServiceImplBase {
 
-    private final List<Job> jobs = new ArrayList<>();
-    private final List<ApplicationRecord> applications = new ArrayList<>();
-    private final AtomicInteger jobIdGenerator = new AtomicInteger(1);
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int DEFAULT_CHUNK_SIZE = 500;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int DEFAULT_TOP_K = 50;
+    static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final CompletableFuture<Void> DURABLE = CompletableFuture.completedFuture(null);
+
+    private final JobStore store = new JobStore();
+    private final JobJournal journal;
+    private final ScreeningPipeline screening;
+    // Applications not yet durable, so identical retries can wait on the original
+    private final ConcurrentMap<ApplicationRecord, CompletableFuture<Void>> submissions = new ConcurrentHashMap<>();
+    private final Rescreener rescreener = new Rescreener(store.resumes());
+
+    public JobServiceImpl(ChannelManager channels) {
+        this(channels, "");
+    }
+
+    /** Keeps its log apart from other instances' under the data directory, by {@code instance}. */
+    public JobServiceImpl(ChannelManager channels, String instance) {
+        this(channels, store -> new JobJournal(store, instance));
+    }
 
-    private final ServiceRegistryGrpc.ServiceRegistryBlockingStub registryStub;
+    JobServiceImpl(ChannelManager channels, JobJournal.Opener journal) {
+        try {
+            this.journal = journal.open(store);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the job event log", e);
+        }
+        this.screening = new ScreeningPipeline(channels, store);
+        screening.resume(store.applicationsAfter(0, "", 0)
+                .filter(r -> r.screening().status() == ScreeningStatus.PENDING)
+                .toList());
+    }
 
-    public JobServiceImpl(ServiceRegistryGrpc.ServiceRegistryBlockingStub registryStub) {
-        this.registryStub = registryStub;
+    /** Flushes the event log; call once the server has stopped taking calls. */
+    public void close() throws InterruptedException {
+        journal.close();
     }
 
     @Override
     public void createJob(Job request, StreamObserver<JobResponse> responseObserver) {
-        Job job = Job.newBuilder()
-                .setId(jobIdGenerator.getAndIncrement())
+        Job job = store.addJob(Job.newBuilder()
                 .setTitle(request.getTitle())
                 .setDescription(request.getDescription())
                 .setCompany(request.getCompany())
-                .build();
-        jobs.add(job);
+                .addAllSkills(request.getSkillsList())
+                .build());
 
         JobResponse response = JobResponse.newBuilder()
                 .setSuccess(true)
@@ -46,22 +87,44 @@ public class JobServiceImpl extends JobServiceGrpc.JobServiceImplBase {
                 .setJobId(job.getId())
                 .build();
 
-        responseObserver.onNext(response);
+        respondWhenDurable(journal.jobSaved(job), () -> response, responseObserver);
+    }
+
+    @Override
+    public void listJobs(JobQuery request, StreamObserver<JobList> responseObserver) {
+        int limit = pageSize(request.getPageSize(), DEFAULT_PAGE_SIZE);
+        // Fetch one extra to learn whether there is a next page
+        List<Job> page = store.jobsAfter(request.getCompany(), request.getCursor()).limit(limit + 1).toList();
+        JobList.Builder list = JobList.newBuilder();
+        if (page.size() > limit) {
+            page = page.subList(0, limit);
+            list.setNextCursor(page.get(limit - 1).getId());
+        }
+        responseObserver.onNext(list.addAllJobs(page).build());
         responseObserver.onCompleted();
     }
 
     @Override
-    public void listJobs(com.google.protobuf.Empty request, StreamObserver<JobList> responseObserver) {
-        JobList list = JobList.newBuilder().addAllJobs(jobs).build();
-        responseObserver.onNext(list);
+    public void streamJobs(JobQuery request, StreamObserver<JobList> responseObserver) {
+        streamChunks(store.jobsAfter(request.getCompany(), request.getCursor()).iterator(),
+                pageSize(request.getPageSize(), DEFAULT_CHUNK_SIZE),
+                chunk -> JobList.newBuilder().addAllJobs(chunk).build(),
+                responseObserver);
+    }
+
+    @Override
+    public void searchJobs(JobSearchRequest request, StreamObserver<JobSearchResults> responseObserver) {
+        JobSearchResults.Builder results = JobSearchResults.newBuilder();
+        for (JobSearchIndex.Hit hit : store.searchJobs(request.getQuery(), pageSize(request.getLimit(), DEFAULT_SEARCH_LIMIT))) {
+            results.addHits(JobSearchHit.newBuilder().setJob(store.job(hit.jobId())).setScore(hit.score()));
+        }
+        responseObserver.onNext(results.build());
         responseObserver.onCompleted();
     }
 
     @Override
     public void applyForJob(ApplicationRequest request, StreamObserver<ApplicationResponse> responseObserver) {
-        Optional<Job> job = jobs.stream().filter(j -> j.getId() == request.getJobId()).findFirst();
-
-        if (job.isEmpty()) {
+        if (store.job(request.getJobId()) == null) {
             responseObserver.onNext(ApplicationResponse.newBuilder()
                     .setSuccess(false)
                     .setMessage("Job not found").build());
@@ -69,129 +132,299 @@ public class JobServiceImpl extends JobServiceGrpc.JobServiceImplBase {
             return;
         }
 
-        ApplicationRecord record = new ApplicationRecord(
-                request.getJobId(),
-                request.getCandidateName(),
-                request.getCandidateEmail(),
-                request.getResumeText()
-        );
+        ByteString resume = request.getResumeTextBytes();
+        long resumeHash = ResumeStore.hash(resume);
+        ApplicationRecord duplicate = store.duplicateOf(request.getJobId(), request.getCandidateEmail(),
+                resumeHash, request.getIdempotencyKey());
+        if (duplicate == null) {
+            // No id and no stored resume yet: those are only spent once the claim and the queue accept it
+            ApplicationRecord record = new ApplicationRecord(
+                    request.getJobId(),
+                    request.getCandidateName(),
+                    request.getCandidateEmail(),
+                    resumeHash,
+                    request.getIdempotencyKey(),
+                    store.screeningListener(request.getJobId())
+            );
+            // Registered before the claim, so a retry that finds the record can wait for it too
+            CompletableFuture<Void> durable = new CompletableFuture<>();
+            submissions.put(record, durable);
+            duplicate = store.claim(record);
+            if (duplicate == null) {
+                submit(record, resume, durable, responseObserver);
+                return;
+            }
+            submissions.remove(record);
+        }
+
+        if (!store.sameCandidate(duplicate, request.getJobId(), request.getCandidateEmail())) {
+            responseObserver.onNext(ApplicationResponse.newBuilder()
+                    .setSuccess(false)
+                    .setMessage("Idempotency key was already used for another application").build());
+            responseObserver.onCompleted();
+            return;
+        }
+        // No new screening; answer once the original is durable, which it may not be yet. Its
+        // id may not be assigned until then either, so the reply is only built afterwards
+        CompletableFuture<Void> durable = submissions.getOrDefault(duplicate, DURABLE);
+        if (durable == DURABLE && duplicate.withdrawn()) {
+            // The original was refused or failed to log in the meantime, and is already gone
+            durable = CompletableFuture.failedFuture(new IllegalStateException("Application was not recorded"));
+        }
+        ApplicationRecord original = duplicate;
+        respondWhenDurable(durable, () -> applicationResponse(original, true), responseObserver);
+    }
 
+    private void submit(ApplicationRecord record, ByteString resume, CompletableFuture<Void> durable,
+                        StreamObserver<ApplicationResponse> responseObserver) {
+        // Screening runs in the background; answer as soon as the application is queued
+        if (!screening.reserve()) {
+            abandon(record, durable, new RejectedExecutionException("Screening queue is full"));
+            responseObserver.onNext(ApplicationResponse.newBuilder()
+                    .setSuccess(false)
+                    .setMessage("Screening queue is full, please retry later").build());
+            responseObserver.onCompleted();
+            return;
+        }
         try {
-            ServiceInfo info = registryStub.discover(ServiceQuery.newBuilder().setName("CandidateScreeningService").build());
+            record.assign(store.nextApplicationId(), store.resumes().write(resume));
+        } catch (RuntimeException e) {
+            screening.cancel();
+            abandon(record, durable, e);
+            throw e;
+        }
 
-            if (info.getHost().isEmpty()) {
-                responseObserver.onNext(ApplicationResponse.newBuilder()
-                        .setSuccess(false)
-                        .setMessage("Screening service not found").build());
-                responseObserver.onCompleted();
-                return;
+        screening.submit(record);
+        store.addApplication(record);
+
+        journal.applicationSubmitted(record).whenComplete((ignored, error) -> {
+            if (error != null) {
+                // Not durable, so it never happened: a retry must submit afresh rather than
+                // find this record and be told it was already submitted. Withdrawn before
+                // the submission is dropped, so a retry that finds neither sees the flag
+                store.removeApplication(record);
+                abandon(record, durable, error);
+            } else {
+                submissions.remove(record);
+                durable.complete(null);
             }
+        });
+        respondWhenDurable(durable, () -> applicationResponse(record, false), responseObserver);
+    }
 
-            ManagedChannel channel = ManagedChannelBuilder
-                    .forAddress(info.getHost(), info.getPort())
-                    .usePlaintext()
-                    .build();
-
-            CandidateScreeningServiceGrpc.CandidateScreeningServiceStub screeningStub =
-                    CandidateScreeningServiceGrpc.newStub(channel);
-
-            CountDownLatch latch = new CountDownLatch(1);
-            final ScreeningResult[] resultHolder = new ScreeningResult[1];
-
-            StreamObserver<ScreeningResult> responseObs = new StreamObserver<>() {
-                @Override public void onNext(ScreeningResult value) { resultHolder[0] = value; }
-                @Override public void onError(Throwable t) { latch.countDown(); }
-                @Override public void onCompleted() { latch.countDown(); }
-            };
-
-            StreamObserver<ResumeRequest> requestObs = screeningStub.submitResume(responseObs);
-            for (String line : request.getResumeText().split("\n")) {
-                requestObs.onNext(ResumeRequest.newBuilder()
-                        .setCandidateEmail(request.getCandidateEmail())
-                        .setContentChunk(line)
-                        .build());
-            }
-            requestObs.onCompleted();
+    // Gives up a claimed application that was never added, or has been removed again
+    private void abandon(ApplicationRecord record, CompletableFuture<Void> durable, Throwable error) {
+        record.withdraw();
+        store.release(record);
+        submissions.remove(record);
+        durable.completeExceptionally(error);
+    }
 
-            latch.await(3, TimeUnit.SECONDS);
-            channel.shutdown();
+    private static ApplicationResponse applicationResponse(ApplicationRecord record, boolean duplicate) {
+        return ApplicationResponse.newBuilder()
+                .setSuccess(true)
+                .setMessage(duplicate ? "Application already submitted" : "Application submitted")
+                .setApplicationId(record.applicationId)
+                .setDuplicate(duplicate)
+                .setApplication(record.toProto())
+                .build();
+    }
 
-            if (resultHolder[0] != null) {
-                record.screeningScore = resultHolder[0].getScore();
-                record.screeningFeedback = resultHolder[0].getFeedback();
+    // Acknowledges only once the change is in the event log; the reply is built then
+    private static <T> void respondWhenDurable(CompletableFuture<Void> durable, Supplier<T> response,
+                                               StreamObserver<T> responseObserver) {
+        durable.whenComplete((ignored, error) -> {
+            if (error != null) {
+                responseObserver.onError(Status.UNAVAILABLE
+                        .withDescription("Could not persist the change: " + error.getMessage())
+                        .asRuntimeException());
+                return;
             }
+            responseObserver.onNext(response.get());
+            responseObserver.onCompleted();
+        });
+    }
 
-            applications.add(record);
+    @Override
+    public void listApplications(ApplicationFilter request, StreamObserver<ApplicationList> responseObserver) {
+        int limit = pageSize(request.getPageSize(), DEFAULT_PAGE_SIZE);
+        List<ApplicationRecord> page = matching(request).limit(limit + 1).toList();
+        ApplicationList.Builder list = ApplicationList.newBuilder();
+        if (page.size() > limit) {
+            page = page.subList(0, limit);
+            list.setNextCursor(page.get(limit - 1).applicationId);
+        }
+        for (ApplicationRecord r : page) {
+            list.addApplications(r.toProto());
+        }
+        responseObserver.onNext(list.build());
+        responseObserver.onCompleted();
+    }
 
-            responseObserver.onNext(ApplicationResponse.newBuilder()
-                    .setSuccess(true)
-                    .setMessage("Application submitted").build());
-            responseObserver.onCompleted();
+    @Override
+    public void streamApplications(ApplicationFilter request, StreamObserver<ApplicationList> responseObserver) {
+        streamChunks(matching(request).iterator(),
+                pageSize(request.getPageSize(), DEFAULT_CHUNK_SIZE),
+                chunk -> {
+                    ApplicationList.Builder list = ApplicationList.newBuilder();
+                    for (ApplicationRecord r : chunk) {
+                        list.addApplications(r.toProto());
+                    }
+                    return list.build();
+                },
+                responseObserver);
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            responseObserver.onNext(ApplicationResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage("Error during application").build());
-            responseObserver.onCompleted();
+    @Override
+    public void topCandidates(TopCandidatesRequest request, StreamObserver<ApplicationList> responseObserver) {
+        if (store.job(request.getJobId()) == null) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription("Job " + request.getJobId() + " not found")
+                    .asRuntimeException());
+            return;
+        }
+        ApplicationList.Builder list = ApplicationList.newBuilder();
+        for (ApplicationRecord r : store.ranking(request.getJobId()).top(pageSize(request.getK(), DEFAULT_TOP_K))) {
+            list.addApplications(r.toProto());
+        }
+        responseObserver.onNext(list.build());
+        responseObserver.onCompleted();
+    }
+
+    private Stream<ApplicationRecord> matching(ApplicationFilter filter) {
+        Stream<ApplicationRecord> records = store.applicationsAfter(
+                filter.getJobId(), filter.getCandidateEmail(), filter.getCursor());
+        if (!filter.getCompany().isEmpty()) {
+            records = records.filter(r -> {
+                Job job = store.job(r.jobId);
+                return job != null && job.getCompany().equalsIgnoreCase(filter.getCompany());
+            });
+        }
+        if (filter.getMinScore() > 0) {
+            records = records.filter(r -> r.screening().score() >= filter.getMinScore());
         }
+        return records;
+    }
+
+    private static int pageSize(int requested, int fallback) {
+        return requested <= 0 ? fallback : Math.min(requested, MAX_PAGE_SIZE);
+    }
+
+    // Sends the source in chunks, only while the transport can take more, so a slow
+    // reader never makes us buffer the whole result set
+    private static <T, M> void streamChunks(Iterator<T> source, int chunkSize, Function<List<T>, M> toMessage,
+                                            StreamObserver<M> responseObserver) {
+        ServerCallStreamObserver<M> call = (ServerCallStreamObserver<M>) responseObserver;
+        call.setOnCancelHandler(() -> { });
+        call.setOnReadyHandler(new Runnable() {
+            boolean done;
+
+            @Override
+            public void run() {
+                while (!done && call.isReady()) {
+                    if (call.isCancelled()) {
+                        done = true;
+                        return;
+                    }
+                    List<T> chunk = new ArrayList<>(chunkSize);
+                    while (chunk.size() < chunkSize && source.hasNext()) {
+                        chunk.add(source.next());
+                    }
+                    if (!chunk.isEmpty()) {
+                        call.onNext(toMessage.apply(chunk));
+                    }
+                    if (!source.hasNext()) {
+                        done = true;
+                        call.onCompleted();
+                    }
+                }
+            }
+        });
     }
 
     @Override
-    public void listApplications(com.google.protobuf.Empty request, StreamObserver<ApplicationList> responseObserver) {
-        List<Application> appList = new ArrayList<>();
-        for (ApplicationRecord r : applications) {
-            appList.add(Application.newBuilder()
-                    .setCandidateName(r.candidateName)
-                    .setCandidateEmail(r.candidateEmail)
-                    .setJobId(r.jobId)
-                    .setScreeningScore(r.screeningScore)
-                    .setScreeningFeedback(r.screeningFeedback)
-                    .build());
-        }
-        responseObserver.onNext(ApplicationList.newBuilder().addAllApplications(appList).build());
+    public void getApplication(ApplicationQuery request, StreamObserver<Application> responseObserver) {
+        ApplicationRecord record = store.application(request.getApplicationId());
+        if (record == null) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription("Application " + request.getApplicationId() + " not found")
+                    .asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(record.toProto());
         responseObserver.onCompleted();
     }
 
-    private static class ApplicationRecord {
-        int jobId;
-        String candidateName;
-        String candidateEmail;
-        String resumeText;
-        int screeningScore;
-        String screeningFeedback;
+    @Override
+    public void watchApplication(ApplicationQuery request, StreamObserver<Application> responseObserver) {
+        ApplicationRecord record = store.application(request.getApplicationId());
+        if (record == null) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription("Application " + request.getApplicationId() + " not found")
+                    .asRuntimeException());
+            return;
+        }
+        ServerCallStreamObserver<Application> call = (ServerCallStreamObserver<Application>) responseObserver;
+        if (record.screened().isDone()) {
+            call.onNext(record.toProto());
+            call.onCompleted();
+            return;
+        }
+        call.onNext(record.toProto());
+        record.screened().whenComplete((screened, error) -> {
+            if (!call.isCancelled()) {
+                call.onNext(screened.toProto());
+                call.onCompleted();
+            }
+        });
+    }
 
-        public ApplicationRecord(int jobId, String name, String email, String resumeText) {
-            this.jobId = jobId;
-            this.candidateName = name;
-            this.candidateEmail = email;
-            this.resumeText = resumeText;
+    @Override
+    public void rescreenJob(RescreenRequest request, StreamObserver<RescreenProgress> responseObserver) {
+        Job job = store.revise(request.getJobId(), request.getUpdateSkills(), request.getSkillsList());
+        if (job == null) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription("Job " + request.getJobId() + " not found")
+                    .asRuntimeException());
+            return;
         }
+        journal.jobSaved(job);
+        rescreener.rescreen(job, store.applicationsAfter(job.getId(), "", 0).toList(), responseObserver);
     }
 
     public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 9001;
+
         ManagedChannel regChannel = ManagedChannelBuilder
                 .forAddress("localhost", 9000)
                 .usePlaintext()
                 .build();
 
-        ServiceRegistryGrpc.ServiceRegistryBlockingStub registryStub =
-                ServiceRegistryGrpc.newBlockingStub(regChannel);
+        ChannelManager channels = new ChannelManager(new DiscoveryCache(regChannel, Duration.ofSeconds(30)).start());
 
-        Server server = ServerBuilder.forPort(9001)
-                .addService(new JobServiceImpl(registryStub))
+        JobServiceImpl service = new JobServiceImpl(channels, String.valueOf(port));
+        Server server = Metrics.instrument(ServerThreads.configure(ServerBuilder.forPort(port), "JobService"))
+                .addService(service)
                 .build()
                 .start();
 
-        System.out.println("Job Management Service running on port 9001");
-
-        ServiceInfo info = ServiceInfo.newBuilder()
-                .setName("JobService")
-                .setHost("localhost")
-                .setPort(9001)
-                .build();
-
-        registryStub.register(info);
+        System.out.println("Job Management Service running on port " + port);
+        int metricsPort = Integer.getInteger("recruitment.metricsPort", port + 1000);
+        Metrics.serve(metricsPort);
+        System.out.println("Metrics at http://localhost:" + metricsPort + "/metrics");
+
+        ServiceRegistration registration = ServiceRegistration.register(regChannel, "JobService", "localhost", port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            registration.close();
+            try {
+                if (!server.shutdown().awaitTermination(5, TimeUnit.SECONDS)) {
+                    server.shutdownNow().awaitTermination();
+                }
+                service.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
         server.awaitTermination();
     }
 }
@@ -0,0 +1,278 @@
+package org.example.recruitment.job;
+
+import job.JobServiceOuterClass.Job;
+import job.JobServiceOuterClass.Skill;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Thread-safe in-memory store for jobs and applications. Primary lookups are
+ * O(1) hash lookups by id. Secondary indexes map company, candidate email and
+ * job id to id-ordered skip lists of the matching records, so a cursor can seek
+ * straight to its position; since ids are handed out sequentially, walking ids
+ * up from the cursor gives creation order without a separate ordered structure.
+ * Each job also keeps its applications ranked by screening score, and job text
+ * is indexed for full-text search as jobs are added. Everything is built on
+ * lock-free concurrent maps, so concurrent creates and applies never block
+ * each other.
+ */
+class JobStore {
+
+    private final AtomicInteger jobIdGenerator = new AtomicInteger(1);
+    private final AtomicInteger applicationIdGenerator = new AtomicInteger(1);
+
+    private final ConcurrentMap<Integer, Job> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, NavigableMap<Integer, Job>> jobsByCompany = new ConcurrentHashMap<>();
+    private final JobSearchIndex searchIndex = new JobSearchIndex();
+
+    private final ConcurrentMap<Integer, ApplicationRecord> applications = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, NavigableMap<Integer, ApplicationRecord>> applicationsByJob = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, NavigableMap<Integer, ApplicationRecord>> applicationsByEmail = new ConcurrentHashMap<>();
+    // Each candidate's latest application to each job, and applications by client idempotency key
+    private final ConcurrentMap<CandidateKey, ApplicationRecord> latestApplications = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ApplicationRecord> applicationsByIdempotencyKey = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, CandidateRanking> rankings = new ConcurrentHashMap<>();
+    private final ResumeStore resumes = new ResumeStore();
+    // Null while the journal is replaying into this store, so nothing replayed is written back
+    private volatile JobJournal journal;
+
+    void attach(JobJournal journal) {
+        this.journal = journal;
+    }
+
+    Job addJob(Job request) {
+        Job job = request.toBuilder().setId(jobIdGenerator.getAndIncrement()).build();
+        jobs.put(job.getId(), job);
+        jobsByCompany.computeIfAbsent(key(job.getCompany()), k -> new ConcurrentSkipListMap<>()).put(job.getId(), job);
+        searchIndex.add(job);
+        return job;
+    }
+
+    /**
+     * Bumps the job's criteria revision, replacing its skills too if asked.
+     * Returns the updated job, or null if there is no such job.
+     */
+    Job revise(int id, boolean updateSkills, List<Skill> skills) {
+        Job job = jobs.computeIfPresent(id, (k, old) -> {
+            Job.Builder revised = old.toBuilder().setCriteriaRevision(old.getCriteriaRevision() + 1);
+            if (updateSkills) {
+                revised.clearSkills().addAllSkills(skills);
+            }
+            return revised.build();
+        });
+        if (job != null) {
+            jobsByCompany.computeIfAbsent(key(job.getCompany()), k -> new ConcurrentSkipListMap<>()).put(id, job);
+        }
+        return job;
+    }
+
+    Job job(int id) {
+        return jobs.get(id);
+    }
+
+    /** Full-text search over title, description and company, best match first. */
+    List<JobSearchIndex.Hit> searchJobs(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    int lastJobId() {
+        return jobIdGenerator.get() - 1;
+    }
+
+    List<Job> jobs() {
+        return jobsAfter("", 0).toList();
+    }
+
+    /** Jobs with id greater than cursor, in id order, optionally restricted to one company. */
+    Stream<Job> jobsAfter(String company, int cursor) {
+        if (!company.isEmpty()) {
+            return after(jobsByCompany.get(key(company)), cursor);
+        }
+        return IntStream.rangeClosed(cursor + 1, lastJobId()).mapToObj(jobs::get).filter(Objects::nonNull);
+    }
+
+    int nextApplicationId() {
+        return applicationIdGenerator.getAndIncrement();
+    }
+
+    int lastApplicationId() {
+        return applicationIdGenerator.get() - 1;
+    }
+
+    void addApplication(ApplicationRecord record) {
+        applications.put(record.applicationId, record);
+        applicationsByJob.computeIfAbsent(record.jobId, k -> new ConcurrentSkipListMap<>())
+                .put(record.applicationId, record);
+        applicationsByEmail.computeIfAbsent(key(record.candidateEmail), k -> new ConcurrentSkipListMap<>())
+                .put(record.applicationId, record);
+    }
+
+    /** Undoes {@link #addApplication}, for an application that could not be logged. */
+    void removeApplication(ApplicationRecord record) {
+        applications.remove(record.applicationId, record);
+        NavigableMap<Integer, ApplicationRecord> byJob = applicationsByJob.get(record.jobId);
+        if (byJob != null) {
+            byJob.remove(record.applicationId, record);
+        }
+        NavigableMap<Integer, ApplicationRecord> byEmail = applicationsByEmail.get(key(record.candidateEmail));
+        if (byEmail != null) {
+            byEmail.remove(record.applicationId, record);
+        }
+    }
+
+    private record CandidateKey(int jobId, String email) {
+    }
+
+    private static CandidateKey candidateKey(ApplicationRecord record) {
+        return new CandidateKey(record.jobId, key(record.candidateEmail));
+    }
+
+    /**
+     * The application an identical earlier request created, or null: the one
+     * holding the idempotency key, else the candidate's latest for the job if
+     * its resume has the same hash.
+     */
+    ApplicationRecord duplicateOf(int jobId, String email, long resumeHash, String idempotencyKey) {
+        if (!idempotencyKey.isEmpty()) {
+            ApplicationRecord keyed = applicationsByIdempotencyKey.get(idempotencyKey);
+            if (keyed != null) {
+                return keyed;
+            }
+        }
+        ApplicationRecord latest = latestApplications.get(new CandidateKey(jobId, key(email)));
+        return latest != null && latest.resumeHash == resumeHash ? latest : null;
+    }
+
+    boolean sameCandidate(ApplicationRecord record, int jobId, String email) {
+        return record.jobId == jobId && key(record.candidateEmail).equals(key(email));
+    }
+
+    /**
+     * Claims the record's idempotency key and makes it the candidate's latest
+     * application for the job. If a concurrent identical request got there
+     * first, returns that request's record and claims nothing; null otherwise.
+     */
+    ApplicationRecord claim(ApplicationRecord record) {
+        if (!record.idempotencyKey.isEmpty()) {
+            ApplicationRecord keyed = applicationsByIdempotencyKey.putIfAbsent(record.idempotencyKey, record);
+            if (keyed != null) {
+                return keyed;
+            }
+        }
+        ApplicationRecord latest = latestApplications.compute(candidateKey(record),
+                (k, current) -> current != null && current.resumeHash == record.resumeHash ? current : record);
+        if (latest != record) {
+            if (!record.idempotencyKey.isEmpty()) {
+                applicationsByIdempotencyKey.remove(record.idempotencyKey, record);
+            }
+            return latest;
+        }
+        return null;
+    }
+
+    /** Gives up the claim of a record that was never added, or has been removed again. */
+    void release(ApplicationRecord record) {
+        if (!record.idempotencyKey.isEmpty()) {
+            applicationsByIdempotencyKey.remove(record.idempotencyKey, record);
+        }
+        // The newest stored application is the one the record displaced
+        latestApplications.computeIfPresent(candidateKey(record), (k, current) -> current != record ? current
+                : after(applicationsByEmail.get(k.email()), 0).filter(r -> r.jobId == k.jobId())
+                        .reduce((older, newer) -> newer).orElse(null));
+    }
+
+    ResumeStore resumes() {
+        return resumes;
+    }
+
+    /** The job's screened applications ranked by score; records keep it current themselves. */
+    CandidateRanking ranking(int jobId) {
+        return rankings.computeIfAbsent(jobId, k -> new CandidateRanking());
+    }
+
+    /** What a new application for the job reports its screening changes to. */
+    ApplicationRecord.ScreeningListener screeningListener(int jobId) {
+        CandidateRanking ranking = ranking(jobId);
+        return (record, from, to) -> {
+            ranking.move(record, from, to);
+            JobJournal journal = this.journal;
+            if (journal != null) {
+                journal.screened(record, to);
+            }
+        };
+    }
+
+    /** Puts back a job read from the event log, keeping whichever revision is newer. */
+    void restoreJob(Job job) {
+        Job previous = jobs.get(job.getId());
+        if (previous != null && previous.getCriteriaRevision() > job.getCriteriaRevision()) {
+            return;
+        }
+        jobs.put(job.getId(), job);
+        jobsByCompany.computeIfAbsent(key(job.getCompany()), k -> new ConcurrentSkipListMap<>()).put(job.getId(), job);
+        if (previous == null) {
+            searchIndex.add(job);
+        }
+        jobIdGenerator.accumulateAndGet(job.getId() + 1, Math::max);
+    }
+
+    /** Puts back an application read from the event log; false if it was already there. */
+    boolean restoreApplication(ApplicationRecord record) {
+        if (applications.containsKey(record.applicationId)) {
+            return false;
+        }
+        addApplication(record);
+        if (!record.idempotencyKey.isEmpty()) {
+            applicationsByIdempotencyKey.put(record.idempotencyKey, record);
+        }
+        latestApplications.merge(candidateKey(record), record,
+                (current, restored) -> restored.applicationId > current.applicationId ? restored : current);
+        applicationIdGenerator.accumulateAndGet(record.applicationId + 1, Math::max);
+        return true;
+    }
+
+    ApplicationRecord application(int id) {
+        return applications.get(id);
+    }
+
+    List<ApplicationRecord> applications() {
+        List<ApplicationRecord> list = new ArrayList<>(applications.size());
+        applicationsAfter(0, "", 0).forEach(list::add);
+        return list;
+    }
+
+    /**
+     * Applications with id greater than cursor, in id order. A non-zero jobId or a
+     * non-empty email narrows the scan to that index instead of walking everything.
+     */
+    Stream<ApplicationRecord> applicationsAfter(int jobId, String email, int cursor) {
+        if (jobId != 0) {
+            Stream<ApplicationRecord> forJob = after(applicationsByJob.get(jobId), cursor);
+            return email.isEmpty() ? forJob : forJob.filter(r -> key(r.candidateEmail).equals(key(email)));
+        }
+        if (!email.isEmpty()) {
+            return after(applicationsByEmail.get(key(email)), cursor);
+        }
+        return IntStream.rangeClosed(cursor + 1, lastApplicationId())
+                .mapToObj(applications::get)
+                .filter(Objects::nonNull);
+    }
+
+    private static <T> Stream<T> after(NavigableMap<Integer, T> index, int cursor) {
+        return index == null ? Stream.empty() : index.tailMap(cursor, false).values().stream();
+    }
+
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
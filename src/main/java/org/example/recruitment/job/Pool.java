@@ -0,0 +1,43 @@
+package org.example.recruitment.job;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A few reusable objects, borrowed for one use and given back. Stands in for
+ * a ThreadLocal where handlers may run on virtual threads: each request gets
+ * a thread of its own, so a per-thread cache would build a new object every
+ * time. At most as many idle objects are kept as there are processors; one
+ * given back beyond that is discarded.
+ */
+final class Pool<T> {
+
+    private static final int MAX_IDLE = Runtime.getRuntime().availableProcessors();
+
+    private final ArrayBlockingQueue<T> idle = new ArrayBlockingQueue<>(MAX_IDLE);
+    private final Supplier<T> factory;
+    private final Consumer<T> discard;
+
+    Pool(Supplier<T> factory) {
+        this(factory, object -> {
+        });
+    }
+
+    /** {@code discard} frees what the collector can't, such as a Deflater's native state. */
+    Pool(Supplier<T> factory, Consumer<T> discard) {
+        this.factory = factory;
+        this.discard = discard;
+    }
+
+    T borrow() {
+        T object = idle.poll();
+        return object != null ? object : factory.get();
+    }
+
+    void release(T object) {
+        if (!idle.offer(object)) {
+            discard.accept(object);
+        }
+    }
+}
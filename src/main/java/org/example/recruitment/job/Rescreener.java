@@ -0,0 +1,151 @@
+package org.example.recruitment.job;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import job.JobServiceOuterClass.Job;
+import job.JobServiceOuterClass.RescreenProgress;
+import org.example.recruitment.screening.KeywordMatcher;
+import org.example.recruitment.screening.ResumeScorer;
+import screening.CandidateScreeningServiceOuterClass.Skill;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Re-scores every stored application of a job in place, without a round trip
+ * per resume to the screening service. Work is split fork/join style on a pool
+ * of its own, sized to half the cores, so a 100k-application rescreen never
+ * occupies the threads serving regular requests. Each result is swapped into
+ * its record atomically and stamped with the job's criteria revision, so a
+ * slower screening against older criteria can never overwrite it. A newer
+ * rescreen of the same job supersedes a running one.
+ */
+class Rescreener {
+
+    private static final int SPLIT_THRESHOLD = 256;
+    private static final long PROGRESS_INTERVAL_MILLIS = 250;
+
+    private final ForkJoinPool pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    private final ScheduledExecutorService progressTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "rescreen-progress");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ConcurrentMap<Integer, Task> running = new ConcurrentHashMap<>();
+    private final ResumeStore resumes;
+
+    Rescreener(ResumeStore resumes) {
+        this.resumes = resumes;
+    }
+
+    private static final class Task {
+        final Job job;
+        final int total;
+        final AtomicInteger rescreened = new AtomicInteger();
+        volatile boolean superseded;
+
+        Task(Job job, int total) {
+            this.job = job;
+            this.total = total;
+        }
+
+        RescreenProgress progress(boolean done, String message) {
+            return RescreenProgress.newBuilder()
+                    .setJobId(job.getId())
+                    .setCriteriaRevision(job.getCriteriaRevision())
+                    .setTotal(total)
+                    .setRescreened(rescreened.get())
+                    .setDone(done)
+                    .setMessage(message)
+                    .build();
+        }
+    }
+
+    /**
+     * Rescores the records against the job's current skills, reporting progress
+     * at most every 250ms while the stream can take it, then a final message.
+     * The rescreen runs to completion even if the caller goes away.
+     */
+    void rescreen(Job job, List<ApplicationRecord> records, StreamObserver<RescreenProgress> responseObserver) {
+        Task task = new Task(job, records.size());
+        Task previous = running.put(job.getId(), task);
+        if (previous != null) {
+            previous.superseded = true;
+        }
+
+        KeywordMatcher matcher = KeywordMatcher.compile(job.getSkillsList().stream()
+                .map(s -> Skill.newBuilder().setKeyword(s.getKeyword()).setWeight(s.getWeight()).build())
+                .toList());
+        ServerCallStreamObserver<RescreenProgress> call = (ServerCallStreamObserver<RescreenProgress>) responseObserver;
+        Object sendLock = new Object();
+        boolean[] finished = {false};
+        ScheduledFuture<?> ticker = progressTimer.scheduleAtFixedRate(() -> {
+            synchronized (sendLock) {
+                if (!finished[0] && !call.isCancelled() && call.isReady()) {
+                    call.onNext(task.progress(false, "Rescreening"));
+                }
+            }
+        }, 0, PROGRESS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        call.setOnCancelHandler(() -> ticker.cancel(false));
+
+        long start = System.nanoTime();
+        CompletableFuture.runAsync(() -> new Rescore(task, matcher, records, 0, records.size()).invoke(), pool)
+                .whenComplete((ignored, error) -> {
+                    ticker.cancel(false);
+                    running.remove(job.getId(), task);
+                    String message = error != null ? "Rescreen failed: " + error.getMessage()
+                            : task.superseded ? "Superseded by a newer rescreen"
+                            : "Rescreened " + task.rescreened.get() + " applications in "
+                                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms";
+                    synchronized (sendLock) {
+                        finished[0] = true;
+                        if (!call.isCancelled()) {
+                            call.onNext(task.progress(true, message));
+                            call.onCompleted();
+                        }
+                    }
+                });
+    }
+
+    private final class Rescore extends RecursiveAction {
+        private final Task task;
+        private final KeywordMatcher matcher;
+        private final List<ApplicationRecord> records;
+        private final int from;
+        private final int to;
+
+        Rescore(Task task, KeywordMatcher matcher, List<ApplicationRecord> records, int from, int to) {
+            this.task = task;
+            this.matcher = matcher;
+            this.records = records;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Rescore(task, matcher, records, from, mid), new Rescore(task, matcher, records, mid, to));
+                return;
+            }
+            for (int i = from; i < to && !task.superseded; i++) {
+                ApplicationRecord record = records.get(i);
+                ResumeScorer scorer = new ResumeScorer(matcher);
+                scorer.accept(resumes.read(record.resume));
+                if (record.complete(scorer.score(), scorer.feedback(), task.job.getCriteriaRevision())) {
+                    task.rescreened.incrementAndGet();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.example.recruitment.job;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Resume bodies kept outside the Java heap, in memory-mapped segment files, so
+ * tens of thousands of multi-KB resumes cost the collector nothing. Each
+ * application holds only a {@code long} handle: segment number in the high
+ * half, offset in the low half.
+ *
+ * <p>A resume is deflated when that saves at least a tenth of its size, which
+ * for ordinary text is usually well over half. Reading one stored as is wraps
+ * the mapped bytes in a ByteString with no copy at all; a compressed one is
+ * inflated into a fresh array that is wrapped without a further copy. Set
+ * {@code recruitment.resumes.compress=false} to trade the space for that copy.
+ *
+ * <p>Segment files are deleted as soon as they are mapped, so nothing is left
+ * behind on exit. The mapping keeps them alive, and the OS can page them out
+ * under memory pressure. Durability comes from the event log, not from here.
+ *
+ * <p>Space is reserved under a lock, and bytes are copied outside it. A handle
+ * is only handed out once its bytes are in place, so readers need no locking.
+ */
+class ResumeStore {
+
+    static final int SEGMENT_BYTES = 64 << 20;
+    static final boolean COMPRESS = Boolean.parseBoolean(System.getProperty("recruitment.resumes.compress", "true"));
+    // Stored length, then original length; stored is smaller exactly when compressed
+    private static final int HEADER_BYTES = 8;
+
+    // Pooled rather than per thread: under virtual threads every request has a thread of its own
+    private static final Pool<Deflater> DEFLATERS = new Pool<>(() -> new Deflater(Deflater.BEST_SPEED), Deflater::end);
+    private static final Pool<Inflater> INFLATERS = new Pool<>(Inflater::new, Inflater::end);
+    private static final Pool<MessageDigest> SHA256 = new Pool<>(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is always available", e);
+        }
+    });
+    private static final Pool<byte[]> SCRATCH = new Pool<>(() -> new byte[1 << 16]);
+
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private int current = -1;
+    private int position;
+
+    /** Stores the resume and returns its handle. */
+    long write(ByteString resume) {
+        int rawLength = resume.size();
+        byte[] compressed = SCRATCH.borrow();
+        try {
+            int storedLength = rawLength;
+            if (COMPRESS && rawLength >= 256) {
+                if (compressed.length < rawLength) {
+                    compressed = new byte[Integer.highestOneBit(rawLength) << 1];
+                }
+                Deflater deflater = DEFLATERS.borrow();
+                try {
+                    deflater.reset();
+                    deflater.setInput(resume.asReadOnlyByteBuffer());
+                    deflater.finish();
+                    // Only worth it if it fits in 90% of the original
+                    int limit = rawLength - rawLength / 10;
+                    int n = deflater.deflate(compressed, 0, limit);
+                    if (deflater.finished()) {
+                        storedLength = n;
+                    }
+                } finally {
+                    DEFLATERS.release(deflater);
+                }
+            }
+
+            long handle = reserve(HEADER_BYTES + storedLength);
+            ByteBuffer segment = segments[(int) (handle >>> 32)];
+            int offset = (int) handle;
+            segment.putInt(offset, storedLength).putInt(offset + 4, rawLength);
+            if (storedLength < rawLength) {
+                segment.put(offset + HEADER_BYTES, compressed, 0, storedLength);
+            } else {
+                segment.put(offset + HEADER_BYTES, resume.asReadOnlyByteBuffer(), 0, rawLength);
+            }
+            return handle;
+        } finally {
+            // Grown or not, the buffer goes back for the next write
+            SCRATCH.release(compressed);
+        }
+    }
+
+    /** The first 64 bits of the resume's SHA-256, for telling identical resumes apart. */
+    static long hash(ByteString resume) {
+        MessageDigest sha256 = SHA256.borrow();
+        try {
+            sha256.reset();
+            sha256.update(resume.asReadOnlyByteBuffer());
+            return ByteBuffer.wrap(sha256.digest()).getLong();
+        } finally {
+            SHA256.release(sha256);
+        }
+    }
+
+    ByteString read(long handle) {
+        ByteBuffer segment = segments[(int) (handle >>> 32)];
+        int offset = (int) handle;
+        int storedLength = segment.getInt(offset);
+        int rawLength = segment.getInt(offset + 4);
+        ByteBuffer stored = segment.slice(offset + HEADER_BYTES, storedLength);
+        if (storedLength == rawLength) {
+            return UnsafeByteOperations.unsafeWrap(stored);
+        }
+        byte[] raw = new byte[rawLength];
+        Inflater inflater = INFLATERS.borrow();
+        try {
+            inflater.reset();
+            inflater.setInput(stored);
+            inflater.inflate(raw);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt resume at " + Long.toHexString(handle), e);
+        } finally {
+            INFLATERS.release(inflater);
+        }
+        // The array never escapes anywhere else, so wrapping it is safe
+        return UnsafeByteOperations.unsafeWrap(raw);
+    }
+
+    private synchronized long reserve(int size) {
+        if (current < 0 || segments[current].capacity() - position < size) {
+            // A resume larger than a whole segment gets one of its own
+            segments = append(segments, map(Math.max(SEGMENT_BYTES, size)));
+            current = segments.length - 1;
+            position = 0;
+        }
+        long handle = ((long) current << 32) | position;
+        position += size;
+        return handle;
+    }
+
+    private static MappedByteBuffer[] append(MappedByteBuffer[] segments, MappedByteBuffer segment) {
+        MappedByteBuffer[] grown = Arrays.copyOf(segments, segments.length + 1);
+        grown[segments.length] = segment;
+        return grown;
+    }
+
+    private static MappedByteBuffer map(int size) {
+        try {
+            Path file = Files.createTempFile("resumes-", ".segment");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            } finally {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map a resume segment", e);
+        }
+    }
+}
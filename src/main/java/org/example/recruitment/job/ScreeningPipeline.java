@@ -0,0 +1,199 @@
+package org.example.recruitment.job;
+
+import com.google.protobuf.ByteString;
+import io.grpc.ManagedChannel;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import job.JobServiceOuterClass;
+import job.JobServiceOuterClass.Job;
+import org.example.recruitment.registry.ChannelManager;
+import screening.CandidateScreeningServiceGrpc;
+import screening.CandidateScreeningServiceOuterClass.ResumeRequest;
+import screening.CandidateScreeningServiceOuterClass.ScreeningResult;
+import screening.CandidateScreeningServiceOuterClass.Skill;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Screens applications off the request path. Intake is a bounded queue; a place
+ * in it is taken with {@link #reserve}, which refuses when it is full so callers
+ * can push back before spending anything on the application. A single
+ * dispatcher drains the queue, and a semaphore caps how many screening calls
+ * are in flight at once.
+ */
+class ScreeningPipeline {
+
+    static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    static final int DEFAULT_MAX_IN_FLIGHT = 64;
+    private static final long SCREENING_TIMEOUT_SECONDS = 10;
+
+    private final ChannelManager channels;
+    private final JobStore store;
+    private final BlockingQueue<ApplicationRecord> queue;
+    // Places in the queue not yet reserved; one is given back as each record is taken
+    private final Semaphore capacity;
+    private final Semaphore inFlight;
+    private final Thread dispatcher;
+
+    ScreeningPipeline(ChannelManager channels, JobStore store) {
+        this(channels, store, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    ScreeningPipeline(ChannelManager channels, JobStore store, int queueCapacity, int maxInFlight) {
+        this.channels = channels;
+        this.store = store;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.capacity = new Semaphore(queueCapacity);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.dispatcher = new Thread(this::dispatch, "screening-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /** Takes a place in the queue for one record; false if the queue is full. */
+    boolean reserve() {
+        return capacity.tryAcquire();
+    }
+
+    /** Gives back a place that {@link #reserve} took but that will not be used. */
+    void cancel() {
+        capacity.release();
+    }
+
+    /** Queues the record for screening into the place {@link #reserve} took for it. */
+    void submit(ApplicationRecord record) {
+        queue.add(record);
+    }
+
+    /**
+     * Queues applications recovered from the event log that were never screened,
+     * waiting for queue space rather than dropping any, on a thread of its own.
+     */
+    void resume(List<ApplicationRecord> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        System.out.println("Resuming screening of " + pending.size() + " recovered applications");
+        Thread.ofPlatform().daemon().name("screening-resume").start(() -> {
+            try {
+                for (ApplicationRecord record : pending) {
+                    capacity.acquire();
+                    queue.add(record);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private void dispatch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                ApplicationRecord record = queue.take();
+                capacity.release();
+                inFlight.acquire();
+                // Set by whichever gives the permit back first: the call's outcome or a failure here
+                AtomicBoolean released = new AtomicBoolean();
+                try {
+                    screen(record, released);
+                } catch (RuntimeException e) {
+                    // Lowest revision: never overrides a result that has already landed
+                    finish(record, released, null, "Screening failed: " + e.getMessage(),
+                            ApplicationRecord.Screening.PENDING.revision());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void screen(ApplicationRecord record, AtomicBoolean released) {
+        // Score against the job's criteria as of now; a rescreen may already have covered them
+        Job job = store.job(record.jobId);
+        int revision = job == null ? 0 : job.getCriteriaRevision();
+        if (record.screening().revision() >= revision) {
+            release(released);
+            return;
+        }
+
+        ManagedChannel channel;
+        try {
+            channel = channels.getChannel("CandidateScreeningService");
+        } catch (StatusRuntimeException e) {
+            finish(record, released, null, "Screening service not found", revision);
+            return;
+        }
+
+        CandidateScreeningServiceGrpc.CandidateScreeningServiceStub screeningStub =
+                CandidateScreeningServiceGrpc.newStub(channel)
+                        .withDeadlineAfter(SCREENING_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        StreamObserver<ScreeningResult> responseObs = new StreamObserver<>() {
+            ScreeningResult result;
+
+            @Override public void onNext(ScreeningResult value) { result = value; }
+            @Override public void onError(Throwable t) { finish(record, released, null, "Screening failed: " + t.getMessage(), revision); }
+            @Override public void onCompleted() { finish(record, released, result, "Screening returned no result", revision); }
+        };
+
+        StreamObserver<ResumeRequest> requestObs = screeningStub.submitResume(responseObs);
+        try {
+            send(record, job, requestObs);
+        } catch (RuntimeException e) {
+            // Cancels the call, which is then finished through onError
+            requestObs.onError(e);
+            throw e;
+        }
+    }
+
+    private void send(ApplicationRecord record, Job job, StreamObserver<ResumeRequest> requestObs) {
+        // The first chunk carries the job's current skills; screening caches the compiled matcher
+        ResumeRequest.Builder first = ResumeRequest.newBuilder()
+                .setCandidateEmail(record.candidateEmail)
+                .setJobId(record.jobId);
+        if (job != null) {
+            for (JobServiceOuterClass.Skill skill : job.getSkillsList()) {
+                first.addSkills(Skill.newBuilder().setKeyword(skill.getKeyword()).setWeight(skill.getWeight()));
+            }
+        }
+        // One chunk per line, each a view of the stored resume rather than a copy
+        ByteString resume = store.resumes().read(record.resume);
+        ResumeRequest.Builder chunk = first;
+        int start = 0;
+        for (int i = 0; i <= resume.size(); i++) {
+            if (i == resume.size() || resume.byteAt(i) == '\n') {
+                requestObs.onNext(chunk.setCandidateEmail(record.candidateEmail)
+                        .setContentChunkBytes(resume.substring(start, i)).build());
+                chunk = ResumeRequest.newBuilder();
+                start = i + 1;
+            }
+        }
+        requestObs.onCompleted();
+    }
+
+    // Results for a stale revision are dropped by the record itself
+    private void finish(ApplicationRecord record, AtomicBoolean released, ScreeningResult result, String failure,
+                        int revision) {
+        release(released);
+        if (result != null) {
+            record.complete(result.getScore(), result.getFeedback(), revision);
+        } else {
+            record.fail(failure, revision);
+        }
+    }
+
+    private void release(AtomicBoolean released) {
+        if (released.compareAndSet(false, true)) {
+            inFlight.release();
+        }
+    }
+
+    void shutdown() {
+        dispatcher.interrupt();
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.recruitment.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters for one gRPC method or one gateway route: calls in flight, finished
+ * calls per outcome (a gRPC status code or an HTTP status), and their latency.
+ * Created once per method and kept, so recording a call only touches atomics.
+ */
+final class CallMetrics {
+
+    // Rendered once: name="value" pairs for the Prometheus output
+    final String labels;
+    final AtomicLong inFlight = new AtomicLong();
+    final AtomicLongArray outcomes;
+    final LatencyHistogram latency = new LatencyHistogram();
+
+    CallMetrics(String labels, int outcomes) {
+        this.labels = labels;
+        this.outcomes = new AtomicLongArray(outcomes);
+    }
+
+    void started() {
+        inFlight.incrementAndGet();
+    }
+
+    void finished(int outcome, long nanos) {
+        inFlight.decrementAndGet();
+        record(outcome, nanos);
+    }
+
+    void record(int outcome, long nanos) {
+        outcomes.incrementAndGet(Math.min(outcome, outcomes.length() - 1));
+        latency.record(nanos);
+    }
+}
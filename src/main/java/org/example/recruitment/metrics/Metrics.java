@@ -0,0 +1,224 @@
+package org.example.recruitment.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import io.grpc.ClientInterceptor;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Call counts, outcomes, calls in flight and latency histograms for every gRPC
+ * method this process serves or calls, and for every gateway route, rendered
+ * in the Prometheus text format. One set per JVM: under MainLauncher the
+ * gateway's {@code /metrics} covers the registry, all three services and the
+ * gateway; a service started on its own serves {@link #serve(int) its own}.
+ *
+ * <p>Metrics are created on a method's first call and looked up by the name
+ * its descriptor or route already holds, so recording allocates nothing.
+ */
+public final class Metrics {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    // Prometheus bucket bounds, in microseconds: 0.5 ms to 10 s
+    private static final long[] BUCKETS = {
+            500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000,
+            1_000_000, 2_500_000, 5_000_000, 10_000_000};
+    private static final String[] LE = Arrays.stream(BUCKETS)
+            .mapToObj(bound -> BigDecimal.valueOf(bound, 6).stripTrailingZeros().toPlainString())
+            .toArray(String[]::new);
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final int GRPC_CODES = Status.Code.values().length;
+    private static final int HTTP_STATUSES = 600;
+
+    private static final ServerInterceptor SERVER_INTERCEPTOR = new MetricsServerInterceptor();
+    private static final ClientInterceptor CLIENT_INTERCEPTOR = new MetricsClientInterceptor();
+
+    // full method name -> metrics
+    private static final ConcurrentMap<String, CallMetrics> SERVER = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, CallMetrics> CLIENT = new ConcurrentHashMap<>();
+    // HTTP method -> route -> metrics
+    private static final ConcurrentMap<String, ConcurrentMap<String, CallMetrics>> HTTP = new ConcurrentHashMap<>();
+    private static final AtomicLong HTTP_IN_FLIGHT = new AtomicLong();
+
+    private Metrics() {
+    }
+
+    /** Times every call the built server handles. */
+    public static ServerBuilder<?> instrument(ServerBuilder<?> builder) {
+        return builder.intercept(SERVER_INTERCEPTOR);
+    }
+
+    public static ClientInterceptor clientInterceptor() {
+        return CLIENT_INTERCEPTOR;
+    }
+
+    static CallMetrics server(MethodDescriptor<?, ?> method) {
+        CallMetrics metrics = SERVER.get(method.getFullMethodName());
+        return metrics != null ? metrics : SERVER.computeIfAbsent(method.getFullMethodName(), Metrics::grpc);
+    }
+
+    static CallMetrics client(MethodDescriptor<?, ?> method) {
+        CallMetrics metrics = CLIENT.get(method.getFullMethodName());
+        return metrics != null ? metrics : CLIENT.computeIfAbsent(method.getFullMethodName(), Metrics::grpc);
+    }
+
+    private static CallMetrics grpc(String fullMethodName) {
+        return new CallMetrics("grpc_service=\"" + escape(MethodDescriptor.extractFullServiceName(fullMethodName))
+                + "\",grpc_method=\"" + escape(fullMethodName.substring(fullMethodName.lastIndexOf('/') + 1)) + "\"",
+                GRPC_CODES);
+    }
+
+    /** A gateway request has arrived; {@link #httpFinished} must follow. */
+    public static void httpStarted() {
+        HTTP_IN_FLIGHT.incrementAndGet();
+    }
+
+    /** A gateway request has been answered; {@code route} is the matched path template. */
+    public static void httpFinished(String method, String route, int status, long nanos) {
+        HTTP_IN_FLIGHT.decrementAndGet();
+        ConcurrentMap<String, CallMetrics> routes = HTTP.get(method);
+        if (routes == null) {
+            routes = HTTP.computeIfAbsent(method, m -> new ConcurrentHashMap<>());
+        }
+        CallMetrics metrics = routes.get(route);
+        if (metrics == null) {
+            metrics = routes.computeIfAbsent(route,
+                    r -> new CallMetrics("method=\"" + escape(method) + "\",route=\"" + escape(r) + "\"", HTTP_STATUSES));
+        }
+        // In flight is only counted overall: the route isn't known until the request is done
+        metrics.record(status, nanos);
+    }
+
+    /** Everything recorded so far, in the Prometheus text exposition format. */
+    public static String scrape() {
+        StringBuilder out = new StringBuilder(16 * 1024);
+        Map<String, CallMetrics> server = new TreeMap<>(SERVER);
+        Map<String, CallMetrics> client = new TreeMap<>(CLIENT);
+        Map<String, CallMetrics> http = new TreeMap<>();
+        HTTP.forEach((method, routes) -> routes.forEach((route, metrics) -> http.put(route + " " + method, metrics)));
+
+        grpc(out, "grpc_server", "handled by this process's gRPC servers", server);
+        grpc(out, "grpc_client", "made by this process's gRPC clients", client);
+
+        header(out, "http_server_requests_total", "counter", "Gateway requests answered, by HTTP status.");
+        for (CallMetrics metrics : http.values()) {
+            for (int status = 0; status < HTTP_STATUSES; status++) {
+                long count = metrics.outcomes.get(status);
+                if (count > 0) {
+                    sample(out, "http_server_requests_total", metrics.labels + ",status=\"" + status + "\"", count);
+                }
+            }
+        }
+        header(out, "http_server_in_flight", "gauge", "Gateway requests received and not yet answered.");
+        sample(out, "http_server_in_flight", "", HTTP_IN_FLIGHT.get());
+        latency(out, "http_server_request", "Gateway request", http);
+        return out.toString();
+    }
+
+    private static void grpc(StringBuilder out, String prefix, String what, Map<String, CallMetrics> methods) {
+        header(out, prefix + "_started_total", "counter", "RPCs started, " + what + ".");
+        for (CallMetrics metrics : methods.values()) {
+            long started = metrics.inFlight.get();
+            for (int code = 0; code < GRPC_CODES; code++) {
+                started += metrics.outcomes.get(code);
+            }
+            sample(out, prefix + "_started_total", metrics.labels, started);
+        }
+        header(out, prefix + "_handled_total", "counter", "RPCs completed, by status code, " + what + ".");
+        for (CallMetrics metrics : methods.values()) {
+            for (int code = 0; code < GRPC_CODES; code++) {
+                long count = metrics.outcomes.get(code);
+                if (count > 0) {
+                    sample(out, prefix + "_handled_total",
+                            metrics.labels + ",grpc_code=\"" + Status.Code.values()[code] + "\"", count);
+                }
+            }
+        }
+        header(out, prefix + "_in_flight", "gauge", "RPCs started and not yet completed, " + what + ".");
+        for (CallMetrics metrics : methods.values()) {
+            sample(out, prefix + "_in_flight", metrics.labels, metrics.inFlight.get());
+        }
+        latency(out, prefix + "_handling", "RPC", methods);
+    }
+
+    // A histogram with coarse buckets, which Prometheus can aggregate, and the
+    // quantiles from the fine-grained one, which it can't work out from those
+    private static void latency(StringBuilder out, String prefix, String what, Map<String, CallMetrics> calls) {
+        String name = prefix + "_seconds";
+        header(out, name, "histogram", what + " latency.");
+        for (CallMetrics metrics : calls.values()) {
+            LatencyHistogram latency = metrics.latency;
+            long count = latency.count();
+            for (int i = 0; i < BUCKETS.length; i++) {
+                sample(out, name + "_bucket", metrics.labels + ",le=\"" + LE[i] + "\"",
+                        Math.min(count, latency.countAtOrBelow(BUCKETS[i])));
+            }
+            sample(out, name + "_bucket", metrics.labels + ",le=\"+Inf\"", count);
+            sample(out, name + "_sum", metrics.labels, latency.sumSeconds());
+            sample(out, name + "_count", metrics.labels, count);
+        }
+        String quantiles = prefix + "_quantile_seconds";
+        header(out, quantiles, "gauge", what + " latency quantiles since start, to within 3%.");
+        for (CallMetrics metrics : calls.values()) {
+            for (double quantile : QUANTILES) {
+                sample(out, quantiles, metrics.labels + ",quantile=\"" + quantile + "\"",
+                        metrics.latency.quantileMicros(quantile) / 1e6);
+            }
+        }
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Serves {@code GET /metrics} on its own port, for a service started
+     * without the gateway.
+     */
+    public static HttpServer serve(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+}
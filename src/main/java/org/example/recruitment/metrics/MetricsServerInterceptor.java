@@ -0,0 +1,67 @@
+package org.example.recruitment.metrics;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Times every call a server handles, from the moment it arrives until the
+ * server closes it or the client cancels it, whichever happens first.
+ */
+final class MetricsServerInterceptor implements ServerInterceptor {
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        TimedCall<ReqT, RespT> timed = new TimedCall<>(call, Metrics.server(call.getMethodDescriptor()));
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = next.startCall(timed, headers);
+        } catch (RuntimeException e) {
+            timed.finish(Status.Code.UNKNOWN);
+            throw e;
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onCancel() {
+                timed.finish(Status.Code.CANCELLED);
+                super.onCancel();
+            }
+        };
+    }
+
+    private static final class TimedCall<ReqT, RespT>
+            extends ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT> {
+        private static final AtomicIntegerFieldUpdater<TimedCall> FINISHED =
+                AtomicIntegerFieldUpdater.newUpdater(TimedCall.class, "finished");
+
+        private final CallMetrics metrics;
+        private final long start = System.nanoTime();
+        private volatile int finished;
+
+        TimedCall(ServerCall<ReqT, RespT> call, CallMetrics metrics) {
+            super(call);
+            this.metrics = metrics;
+            metrics.started();
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+            finish(status.getCode());
+            super.close(status, trailers);
+        }
+
+        // A cancelled call may still be closed by its handler; count it once
+        void finish(Status.Code code) {
+            if (FINISHED.compareAndSet(this, 0, 1)) {
+                metrics.finished(code.value(), System.nanoTime() - start);
+            }
+        }
+    }
+}
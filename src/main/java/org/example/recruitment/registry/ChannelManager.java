@@ -0,0 +1,161 @@
+package org.example.recruitment.registry;
+
+import io.grpc.ConnectivityState;
+import io.grpc.LoadBalancerRegistry;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.NameResolverRegistry;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import org.example.recruitment.metrics.Metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps one long-lived channel per service so callers stop paying a fresh
+ * HTTP/2 connection (and leaking it) on every request. Each channel resolves
+ * {@code registry:///ServiceName} through the {@link DiscoveryCache}, holds a
+ * subchannel per live instance, and lets the load-balancing policy spread calls
+ * across them. Instances that leave the registry have their subchannels closed.
+ *
+ * <p>Services named in its {@code inProcess} set are instead reached over gRPC's
+ * in-process transport, at the in-process server named after the service,
+ * skipping sockets and serialization: protobuf messages are handed over as
+ * objects. Only for services started in the same JVM.
+ */
+public class ChannelManager {
+
+    static {
+        LoadBalancerRegistry.getDefaultRegistry().register(new LeastRequestLoadBalancerProvider());
+    }
+
+    /** "round_robin" (default) or "least_request". */
+    public static final String LB_POLICY = System.getProperty("recruitment.lbPolicy", "round_robin");
+
+    private final DiscoveryCache discovery;
+    private final RegistryNameResolverProvider resolverProvider;
+    private final String loadBalancingPolicy;
+    // Read on every lookup, so the owner may add services as it starts them
+    private final Set<String> inProcess;
+
+    // service name -> channel
+    private final ConcurrentMap<String, ManagedChannel> channels = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder connects = new LongAdder();
+    private final LongAdder connectNanos = new LongAdder();
+    private final AtomicLong maxConnectNanos = new AtomicLong();
+
+    public ChannelManager(DiscoveryCache discovery) {
+        this(discovery, Set.of());
+    }
+
+    public ChannelManager(DiscoveryCache discovery, Set<String> inProcess) {
+        this(discovery, LB_POLICY, inProcess);
+    }
+
+    public ChannelManager(DiscoveryCache discovery, String loadBalancingPolicy, Set<String> inProcess) {
+        this.discovery = discovery;
+        this.resolverProvider = new RegistryNameResolverProvider(discovery);
+        this.loadBalancingPolicy = loadBalancingPolicy;
+        this.inProcess = inProcess;
+        NameResolverRegistry.getDefaultRegistry().register(resolverProvider);
+    }
+
+    public ManagedChannel getChannel(String serviceName) {
+        // Served from the discovery cache, so this doesn't leave the process on the hot path
+        if (!inProcess.contains(serviceName) && discovery.resolve(serviceName).isEmpty()) {
+            throw Status.UNAVAILABLE.withDescription(serviceName + " is not registered").asRuntimeException();
+        }
+
+        ManagedChannel channel = channels.get(serviceName);
+        if (channel != null && !channel.isShutdown()) {
+            hits.increment();
+            return channel;
+        }
+        return channels.compute(serviceName, (key, existing) -> {
+            if (existing != null && !existing.isShutdown()) {
+                hits.increment();
+                return existing;
+            }
+            misses.increment();
+            return open(serviceName);
+        });
+    }
+
+    private ManagedChannel open(String serviceName) {
+        long start = System.nanoTime();
+        if (inProcess.contains(serviceName)) {
+            ManagedChannel channel = InProcessChannelBuilder.forName(serviceName)
+                    .intercept(Metrics.clientInterceptor())
+                    .build();
+            trackConnect(channel, channel.getState(true), start);
+            return channel;
+        }
+        ManagedChannel channel = ManagedChannelBuilder.forTarget(resolverProvider.target(serviceName))
+                .defaultLoadBalancingPolicy(loadBalancingPolicy)
+                .usePlaintext()
+                .intercept(Metrics.clientInterceptor())
+                .build();
+        // Start connecting right away so the first call doesn't also pay the handshake
+        trackConnect(channel, channel.getState(true), start);
+        return channel;
+    }
+
+    private void trackConnect(ManagedChannel channel, ConnectivityState state, long start) {
+        if (state == ConnectivityState.READY) {
+            long elapsed = System.nanoTime() - start;
+            connects.increment();
+            connectNanos.add(elapsed);
+            maxConnectNanos.accumulateAndGet(elapsed, Math::max);
+            return;
+        }
+        if (state == ConnectivityState.SHUTDOWN) {
+            return;
+        }
+        channel.notifyWhenStateChanged(state, () -> trackConnect(channel, channel.getState(false), start));
+    }
+
+    public DiscoveryCache discovery() {
+        return discovery;
+    }
+
+    public Map<String, Object> stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        long c = connects.sum();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("poolSize", channels.size());
+        map.put("loadBalancingPolicy", loadBalancingPolicy);
+        map.put("inProcess", Set.copyOf(inProcess));
+        map.put("hits", h);
+        map.put("misses", m);
+        map.put("hitRate", h + m == 0 ? 0.0 : (double) h / (h + m));
+        map.put("connects", c);
+        map.put("avgConnectMillis", c == 0 ? 0.0 : connectNanos.sum() / 1e6 / c);
+        map.put("maxConnectMillis", maxConnectNanos.get() / 1e6);
+        return map;
+    }
+
+    public void shutdown() {
+        channels.values().forEach(ManagedChannel::shutdown);
+        for (ManagedChannel channel : channels.values()) {
+            try {
+                channel.awaitTermination(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        channels.clear();
+        NameResolverRegistry.getDefaultRegistry().deregister(resolverProvider);
+    }
+}
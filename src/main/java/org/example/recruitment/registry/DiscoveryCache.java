@@ -0,0 +1,184 @@
+package org.example.recruitment.registry;
+
+import io.grpc.Channel;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import registry.ServiceRegistryGrpc;
+import registry.ServiceRegistryOuterClass.RegistryEvent;
+import registry.ServiceRegistryOuterClass.ServiceInfo;
+import registry.ServiceRegistryOuterClass.ServiceQuery;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Client-side view of the registry. Lookups are answered from memory; the
+ * registry's Watch stream keeps entries fresh and the TTL bounds how long a
+ * stale entry can survive if that stream goes quiet. Only a miss goes over the
+ * network with a unary Discover.
+ */
+public class DiscoveryCache {
+
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    private final ServiceRegistryGrpc.ServiceRegistryBlockingStub blockingStub;
+    private final ServiceRegistryGrpc.ServiceRegistryStub asyncStub;
+    private final long ttlNanos;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "discovery-watch");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder pushes = new LongAdder();
+    private volatile ClientCallStreamObserver<ServiceQuery> watchCall;
+    private volatile boolean closed;
+
+    private record Entry(List<ServiceInfo> instances, long expiresAt) {
+    }
+
+    public DiscoveryCache(Channel registryChannel, Duration ttl) {
+        this.blockingStub = ServiceRegistryGrpc.newBlockingStub(registryChannel);
+        this.asyncStub = ServiceRegistryGrpc.newStub(registryChannel);
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public DiscoveryCache start() {
+        watch();
+        return this;
+    }
+
+    /** Returns the service's live instances; empty if none are registered. */
+    public List<ServiceInfo> resolve(String serviceName) {
+        Entry entry = entries.get(serviceName);
+        if (entry != null && System.nanoTime() - entry.expiresAt < 0) {
+            hits.increment();
+            return entry.instances;
+        }
+        misses.increment();
+        List<ServiceInfo> instances = List.copyOf(blockingStub
+                .discoverAll(ServiceQuery.newBuilder().setName(serviceName).build())
+                .getInstancesList());
+        if (instances.isEmpty()) {
+            entries.remove(serviceName);
+        } else {
+            entries.put(serviceName, new Entry(instances, System.nanoTime() + ttlNanos));
+        }
+        return instances;
+    }
+
+    /** Called with the service name whenever a pushed change alters its instances. */
+    public void addListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<String> listener) {
+        listeners.remove(listener);
+    }
+
+    private void watch() {
+        if (closed) {
+            return;
+        }
+        asyncStub.watch(ServiceQuery.getDefaultInstance(), new ClientResponseObserver<ServiceQuery, RegistryEvent>() {
+            @Override
+            public void beforeStart(ClientCallStreamObserver<ServiceQuery> call) {
+                watchCall = call;
+            }
+
+            @Override
+            public void onNext(RegistryEvent event) {
+                pushes.increment();
+                apply(event);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                reconnect("Registry watch failed: " + t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                reconnect("Registry watch closed");
+            }
+        });
+    }
+
+    private void apply(RegistryEvent event) {
+        ServiceInfo info = event.getService();
+        String name = info.getName();
+        boolean removed = event.getType() == RegistryEvent.Type.DEREGISTERED;
+        Entry before = entries.get(name);
+        Entry after = entries.compute(name, (k, entry) -> {
+            List<ServiceInfo> instances = new ArrayList<>();
+            if (entry != null) {
+                for (ServiceInfo existing : entry.instances) {
+                    if (!existing.getInstanceId().equals(info.getInstanceId())) {
+                        instances.add(existing);
+                    }
+                }
+            }
+            if (!removed) {
+                instances.add(info);
+            }
+            return instances.isEmpty() ? null : new Entry(List.copyOf(instances), System.nanoTime() + ttlNanos);
+        });
+        List<ServiceInfo> previous = before == null ? List.of() : before.instances;
+        List<ServiceInfo> current = after == null ? List.of() : after.instances;
+        if (!new HashSet<>(previous).equals(new HashSet<>(current))) {
+            listeners.forEach(l -> l.accept(name));
+        }
+    }
+
+    private void reconnect(String reason) {
+        if (closed) {
+            return;
+        }
+        System.err.println(reason + ", retrying in " + RECONNECT_DELAY_MILLIS + "ms");
+        // Without the stream we can't trust pushed entries; force unary lookups until it's back
+        Set<String> dropped = new HashSet<>(entries.keySet());
+        entries.clear();
+        dropped.forEach(name -> listeners.forEach(l -> l.accept(name)));
+        scheduler.schedule(this::watch, RECONNECT_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public Map<String, Object> stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("services", entries.size());
+        map.put("instances", entries.values().stream().mapToInt(e -> e.instances.size()).sum());
+        map.put("hits", h);
+        map.put("misses", m);
+        map.put("hitRate", h + m == 0 ? 0.0 : (double) h / (h + m));
+        map.put("pushes", pushes.sum());
+        return map;
+    }
+
+    public void shutdown() {
+        closed = true;
+        scheduler.shutdownNow();
+        ClientCallStreamObserver<ServiceQuery> call = watchCall;
+        if (call != null) {
+            call.cancel("Discovery cache shut down", null);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.example.recruitment.registry;
+
+import io.grpc.ClientStreamTracer;
+import io.grpc.ConnectivityState;
+import io.grpc.ConnectivityStateInfo;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.LoadBalancer;
+import io.grpc.LoadBalancerProvider;
+import io.grpc.Metadata;
+import io.grpc.Status;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * "least_request" policy: each call goes to whichever of two randomly sampled
+ * READY instances has fewer calls in flight. Sampling two instead of scanning
+ * all keeps picks O(1) while still steering load away from slow instances.
+ */
+public class LeastRequestLoadBalancerProvider extends LoadBalancerProvider {
+
+    public static final String POLICY_NAME = "least_request";
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public int getPriority() {
+        return 5;
+    }
+
+    @Override
+    public String getPolicyName() {
+        return POLICY_NAME;
+    }
+
+    @Override
+    public LoadBalancer newLoadBalancer(LoadBalancer.Helper helper) {
+        return new LeastRequestLoadBalancer(helper);
+    }
+
+    private static final class Tracked {
+        final LoadBalancer.Subchannel subchannel;
+        final AtomicInteger outstanding = new AtomicInteger();
+        final ClientStreamTracer.Factory tracer = new OutstandingTracker(this);
+        ConnectivityStateInfo state = ConnectivityStateInfo.forNonError(ConnectivityState.IDLE);
+
+        Tracked(LoadBalancer.Subchannel subchannel) {
+            this.subchannel = subchannel;
+        }
+    }
+
+    private static final class LeastRequestLoadBalancer extends LoadBalancer {
+        private final Helper helper;
+        // All methods run in the channel's SynchronizationContext, so a plain map is fine
+        private final Map<EquivalentAddressGroup, Tracked> subchannels = new HashMap<>();
+
+        LeastRequestLoadBalancer(Helper helper) {
+            this.helper = helper;
+        }
+
+        @Override
+        public Status acceptResolvedAddresses(ResolvedAddresses resolvedAddresses) {
+            List<EquivalentAddressGroup> addresses = resolvedAddresses.getAddresses();
+            if (addresses.isEmpty()) {
+                Status status = Status.UNAVAILABLE.withDescription("Name resolver returned no addresses");
+                handleNameResolutionError(status);
+                return status;
+            }
+
+            Set<EquivalentAddressGroup> latest = new HashSet<>();
+            for (EquivalentAddressGroup group : addresses) {
+                // Attributes don't identify an endpoint; key on the socket addresses only
+                EquivalentAddressGroup key = new EquivalentAddressGroup(group.getAddresses());
+                latest.add(key);
+                if (!subchannels.containsKey(key)) {
+                    Subchannel subchannel = helper.createSubchannel(CreateSubchannelArgs.newBuilder()
+                            .setAddresses(group)
+                            .build());
+                    Tracked tracked = new Tracked(subchannel);
+                    subchannels.put(key, tracked);
+                    subchannel.start(state -> onStateChange(key, tracked, state));
+                    subchannel.requestConnection();
+                }
+            }
+            subchannels.entrySet().removeIf(e -> {
+                if (latest.contains(e.getKey())) {
+                    return false;
+                }
+                e.getValue().subchannel.shutdown();
+                return true;
+            });
+            updateBalancingState();
+            return Status.OK;
+        }
+
+        private void onStateChange(EquivalentAddressGroup key, Tracked tracked, ConnectivityStateInfo state) {
+            if (subchannels.get(key) != tracked || state.getState() == ConnectivityState.SHUTDOWN) {
+                return;
+            }
+            if (state.getState() == ConnectivityState.IDLE) {
+                tracked.subchannel.requestConnection();
+            }
+            if (state.getState() == ConnectivityState.TRANSIENT_FAILURE || state.getState() == ConnectivityState.IDLE) {
+                helper.refreshNameResolution();
+            }
+            tracked.state = state;
+            updateBalancingState();
+        }
+
+        private void updateBalancingState() {
+            List<Tracked> ready = new ArrayList<>();
+            boolean connecting = false;
+            Status failure = null;
+            for (Tracked tracked : subchannels.values()) {
+                switch (tracked.state.getState()) {
+                    case READY -> ready.add(tracked);
+                    case CONNECTING, IDLE -> connecting = true;
+                    case TRANSIENT_FAILURE -> failure = tracked.state.getStatus();
+                    default -> {
+                    }
+                }
+            }
+            if (!ready.isEmpty()) {
+                helper.updateBalancingState(ConnectivityState.READY, new Picker(ready));
+            } else if (connecting) {
+                helper.updateBalancingState(ConnectivityState.CONNECTING, new FixedPicker(PickResult.withNoResult()));
+            } else {
+                Status status = failure != null ? failure : Status.UNAVAILABLE.withDescription("No instances");
+                helper.updateBalancingState(ConnectivityState.TRANSIENT_FAILURE,
+                        new FixedPicker(PickResult.withError(status)));
+            }
+        }
+
+        @Override
+        public void handleNameResolutionError(Status error) {
+            if (subchannels.isEmpty()) {
+                helper.updateBalancingState(ConnectivityState.TRANSIENT_FAILURE,
+                        new FixedPicker(PickResult.withError(error)));
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            subchannels.values().forEach(t -> t.subchannel.shutdown());
+            subchannels.clear();
+        }
+    }
+
+    private static final class Picker extends LoadBalancer.SubchannelPicker {
+        private final List<Tracked> ready;
+
+        Picker(List<Tracked> ready) {
+            this.ready = ready;
+        }
+
+        @Override
+        public LoadBalancer.PickResult pickSubchannel(LoadBalancer.PickSubchannelArgs args) {
+            Tracked chosen = ready.get(0);
+            if (ready.size() > 1) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Tracked a = ready.get(random.nextInt(ready.size()));
+                Tracked b = ready.get(random.nextInt(ready.size()));
+                chosen = a.outstanding.get() <= b.outstanding.get() ? a : b;
+            }
+            return LoadBalancer.PickResult.withSubchannel(chosen.subchannel, chosen.tracer);
+        }
+    }
+
+    private static final class OutstandingTracker extends ClientStreamTracer.Factory {
+        private final Tracked tracked;
+
+        OutstandingTracker(Tracked tracked) {
+            this.tracked = tracked;
+        }
+
+        @Override
+        public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+            tracked.outstanding.incrementAndGet();
+            return new ClientStreamTracer() {
+                @Override
+                public void streamClosed(Status status) {
+                    tracked.outstanding.decrementAndGet();
+                }
+            };
+        }
+    }
+
+    private static final class FixedPicker extends LoadBalancer.SubchannelPicker {
+        private final LoadBalancer.PickResult result;
+
+        FixedPicker(LoadBalancer.PickResult result) {
+            this.result = result;
+        }
+
+        @Override
+        public LoadBalancer.PickResult pickSubchannel(LoadBalancer.PickSubchannelArgs args) {
+            return result;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.example.recruitment.registry;
+
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.NameResolver;
+import io.grpc.NameResolverProvider;
+import io.grpc.Status;
+import io.grpc.SynchronizationContext;
+import registry.ServiceRegistryOuterClass.ServiceInfo;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Resolves {@code registry-N:///ServiceName} targets to every live instance
+ * known to a {@link DiscoveryCache}, and re-resolves whenever the registry
+ * pushes a change for that service. The channel's load balancer spreads calls
+ * over them.
+ *
+ * <p>Channels find the provider through gRPC's {@link io.grpc.NameResolverRegistry},
+ * which maps a scheme to one provider per JVM, so each provider gets a scheme
+ * of its own: two channel managers with different discovery caches in one
+ * process each resolve through their own.
+ */
+public class RegistryNameResolverProvider extends NameResolverProvider {
+
+    public static final String SCHEME_PREFIX = "registry";
+    private static final AtomicInteger SCHEMES = new AtomicInteger();
+
+    private final DiscoveryCache discovery;
+    private final String scheme = SCHEME_PREFIX + "-" + SCHEMES.incrementAndGet();
+
+    public RegistryNameResolverProvider(DiscoveryCache discovery) {
+        this.discovery = discovery;
+    }
+
+    public String target(String serviceName) {
+        return scheme + ":///" + serviceName;
+    }
+
+    @Override
+    public NameResolver newNameResolver(URI targetUri, NameResolver.Args args) {
+        if (!scheme.equals(targetUri.getScheme())) {
+            return null;
+        }
+        String path = targetUri.getPath();
+        if (path == null || path.length() < 2) {
+            throw new IllegalArgumentException("Expected " + scheme + ":///ServiceName but got " + targetUri);
+        }
+        return new RegistryNameResolver(path.substring(1), args);
+    }
+
+    @Override
+    public String getDefaultScheme() {
+        return scheme;
+    }
+
+    @Override
+    protected boolean isAvailable() {
+        return true;
+    }
+
+    // Below DNS, so plain host:port targets never default to this scheme
+    @Override
+    protected int priority() {
+        return 4;
+    }
+
+    @Override
+    public Collection<Class<? extends SocketAddress>> getProducedSocketAddressTypes() {
+        return List.of(InetSocketAddress.class);
+    }
+
+    private class RegistryNameResolver extends NameResolver {
+        private final String serviceName;
+        private final SynchronizationContext syncContext;
+        private final Executor offloadExecutor;
+        private final Consumer<String> onChange = this::onServiceChanged;
+        private Listener2 listener;
+        private boolean shutdown;
+
+        RegistryNameResolver(String serviceName, Args args) {
+            this.serviceName = serviceName;
+            this.syncContext = args.getSynchronizationContext();
+            Executor offload = args.getOffloadExecutor();
+            this.offloadExecutor = offload != null ? offload : Runnable::run;
+        }
+
+        @Override
+        public String getServiceAuthority() {
+            return serviceName;
+        }
+
+        @Override
+        public void start(Listener2 listener) {
+            this.listener = listener;
+            discovery.addListener(onChange);
+            resolve();
+        }
+
+        @Override
+        public void refresh() {
+            resolve();
+        }
+
+        private void onServiceChanged(String changed) {
+            if (serviceName.equals(changed)) {
+                resolve();
+            }
+        }
+
+        private void resolve() {
+            // A cache miss is a blocking registry call; keep it off the channel's sync context
+            offloadExecutor.execute(() -> {
+                List<ServiceInfo> instances;
+                try {
+                    instances = discovery.resolve(serviceName);
+                } catch (RuntimeException e) {
+                    publishError(Status.UNAVAILABLE
+                            .withDescription("Registry lookup for " + serviceName + " failed").withCause(e));
+                    return;
+                }
+                if (instances.isEmpty()) {
+                    publishError(Status.UNAVAILABLE.withDescription(serviceName + " has no live instances"));
+                    return;
+                }
+                List<EquivalentAddressGroup> addresses = new ArrayList<>(instances.size());
+                for (ServiceInfo info : instances) {
+                    addresses.add(new EquivalentAddressGroup(new InetSocketAddress(info.getHost(), info.getPort())));
+                }
+                syncContext.execute(() -> {
+                    if (!shutdown) {
+                        listener.onResult(ResolutionResult.newBuilder().setAddresses(addresses).build());
+                    }
+                });
+            });
+        }
+
+        private void publishError(Status status) {
+            syncContext.execute(() -> {
+                if (!shutdown) {
+                    listener.onError(status);
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+            discovery.removeListener(onChange);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.recruitment.registry;
+
+import io.grpc.Channel;
+import io.grpc.StatusRuntimeException;
+import registry.ServiceRegistryGrpc;
+import registry.ServiceRegistryOuterClass.RegisterResponse;
+import registry.ServiceRegistryOuterClass.ServiceInfo;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers one service instance and keeps its lease alive with heartbeats at a
+ * third of the lease the registry granted, so a couple of lost beats don't
+ * expire a healthy instance. Closing it deregisters the instance.
+ */
+public class ServiceRegistration implements AutoCloseable {
+
+    private final ServiceRegistryGrpc.ServiceRegistryBlockingStub registryStub;
+    private final ServiceInfo info;
+    private final ScheduledExecutorService scheduler;
+
+    private ServiceRegistration(Channel registryChannel, ServiceInfo info) {
+        this.registryStub = ServiceRegistryGrpc.newBlockingStub(registryChannel);
+        this.info = info;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "heartbeat-" + info.getName());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static ServiceRegistration register(Channel registryChannel, String name, String host, int port) {
+        ServiceInfo info = ServiceInfo.newBuilder()
+                .setName(name)
+                .setHost(host)
+                .setPort(port)
+                .setInstanceId(name + "@" + host + ":" + port)
+                .build();
+        ServiceRegistration registration = new ServiceRegistration(registryChannel, info);
+        RegisterResponse resp = registration.registryStub.register(info);
+        System.out.println("Service Registry response: " + resp.getMessage());
+        long period = Math.max(100, resp.getLeaseMillis() / 3);
+        registration.scheduler.scheduleAtFixedRate(registration::heartbeat, period, period, TimeUnit.MILLISECONDS);
+        return registration;
+    }
+
+    private void heartbeat() {
+        try {
+            registryStub.withDeadlineAfter(2, TimeUnit.SECONDS).heartbeat(info);
+        } catch (StatusRuntimeException e) {
+            System.err.println("Heartbeat for " + info.getInstanceId() + " failed: " + e.getStatus());
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        try {
+            registryStub.withDeadlineAfter(2, TimeUnit.SECONDS).deregister(info);
+        } catch (StatusRuntimeException e) {
+            System.err.println("Deregister of " + info.getInstanceId() + " failed: " + e.getStatus());
+        }
+    }
+}
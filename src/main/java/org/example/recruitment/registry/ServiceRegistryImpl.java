@@ -2,35 +2,116 @@ package org.example.recruitment.registry;
 
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
+import org.example.recruitment.metrics.Metrics;
+import org.example.recruitment.server.ServerThreads;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import registry.ServiceRegistryGrpc;
 import registry.ServiceRegistryOuterClass.ServiceInfo;
+import registry.ServiceRegistryOuterClass.ServiceInstances;
 import registry.ServiceRegistryOuterClass.ServiceQuery;
 import registry.ServiceRegistryOuterClass.RegisterResponse;
+import registry.ServiceRegistryOuterClass.RegistryEvent;
 
 public class ServiceRegistryImpl extends ServiceRegistryGrpc.ServiceRegistryImplBase {
-    private final ConcurrentMap<String, ServiceInfo> services = new ConcurrentHashMap<>();
+    public static final long DEFAULT_LEASE_MILLIS = 10_000;
+
+    // service name -> instance id -> lease
+    private final ConcurrentMap<String, ConcurrentMap<String, Lease>> services = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> cursors = new ConcurrentHashMap<>();
+    private final List<Watcher> watchers = new CopyOnWriteArrayList<>();
+    private final long leaseMillis;
+    private final ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "registry-lease-reaper");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final class Lease {
+        final ServiceInfo info;
+        volatile long expiresAt;
+
+        Lease(ServiceInfo info, long expiresAt) {
+            this.info = info;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public ServiceRegistryImpl() {
+        this(DEFAULT_LEASE_MILLIS);
+    }
+
+    public ServiceRegistryImpl(long leaseMillis) {
+        this.leaseMillis = leaseMillis;
+        long period = Math.max(100, leaseMillis / 4);
+        reaper.scheduleAtFixedRate(this::expireLeases, period, period, TimeUnit.MILLISECONDS);
+    }
 
     @Override
     public void register(ServiceInfo request, StreamObserver<RegisterResponse> responseObserver) {
-        services.put(request.getName(), request);
+        ServiceInfo info = withInstanceId(request);
+        instances(info.getName()).put(info.getInstanceId(), new Lease(info, System.nanoTime() + leaseNanos()));
         RegisterResponse resp = RegisterResponse.newBuilder()
                 .setSuccess(true)
-                .setMessage("Registered " + request.getName())
+                .setMessage("Registered " + info.getName())
+                .setLeaseMillis(leaseMillis)
                 .build();
         responseObserver.onNext(resp);
         responseObserver.onCompleted();
-        System.out.println("Service registered: " + request.getName() +
-                " -> " + request.getHost() + ":" + request.getPort());
+        System.out.println("Service registered: " + info.getName() + " [" + info.getInstanceId() + "]" +
+                " -> " + info.getHost() + ":" + info.getPort());
+        publish(RegistryEvent.Type.REGISTERED, info);
+    }
+
+    @Override
+    public void heartbeat(ServiceInfo request, StreamObserver<RegisterResponse> responseObserver) {
+        ServiceInfo info = withInstanceId(request);
+        Lease lease = instances(info.getName()).get(info.getInstanceId());
+        if (lease == null) {
+            // Lease already expired (or the registry restarted); take the heartbeat as a registration
+            register(info, responseObserver);
+            return;
+        }
+        lease.expiresAt = System.nanoTime() + leaseNanos();
+        responseObserver.onNext(RegisterResponse.newBuilder()
+                .setSuccess(true)
+                .setMessage("Lease renewed")
+                .setLeaseMillis(leaseMillis)
+                .build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void deregister(ServiceInfo request, StreamObserver<RegisterResponse> responseObserver) {
+        ServiceInfo info = withInstanceId(request);
+        Lease removed = instances(info.getName()).remove(info.getInstanceId());
+        responseObserver.onNext(RegisterResponse.newBuilder()
+                .setSuccess(removed != null)
+                .setMessage(removed != null ? "Deregistered " + info.getName() : "Unknown instance")
+                .build());
+        responseObserver.onCompleted();
+        if (removed != null) {
+            System.out.println("Service deregistered: " + info.getName() + " [" + info.getInstanceId() + "]");
+            publish(RegistryEvent.Type.DEREGISTERED, removed.info);
+        }
     }
 
     @Override
     public void discover(ServiceQuery request, StreamObserver<ServiceInfo> responseObserver) {
-        ServiceInfo info = services.get(request.getName());
-        if (info != null) {
-            responseObserver.onNext(info);
+        List<ServiceInfo> live = live(request.getName());
+        if (!live.isEmpty()) {
+            int next = cursors.computeIfAbsent(request.getName(), k -> new AtomicInteger()).getAndIncrement();
+            responseObserver.onNext(live.get(Math.floorMod(next, live.size())));
         } else {
             // Return an empty ServiceInfo if not found
             responseObserver.onNext(ServiceInfo.newBuilder().build());
@@ -38,14 +119,137 @@ public class ServiceRegistryImpl extends ServiceRegistryGrpc.ServiceRegistryImpl
         responseObserver.onCompleted();
     }
 
+    @Override
+    public void discoverAll(ServiceQuery request, StreamObserver<ServiceInstances> responseObserver) {
+        responseObserver.onNext(ServiceInstances.newBuilder().addAllInstances(live(request.getName())).build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void watch(ServiceQuery request, StreamObserver<RegistryEvent> responseObserver) {
+        Watcher watcher = new Watcher(request.getName(), responseObserver);
+        ((ServerCallStreamObserver<RegistryEvent>) responseObserver).setOnCancelHandler(() -> watchers.remove(watcher));
+        // Added before the view is read, so a change it misses is published to the watcher
+        // afterwards; held back until the view has been sent, so it lands on top of it
+        watchers.add(watcher);
+
+        // Replay the current view so the client starts from a complete snapshot
+        List<RegistryEvent> view = new ArrayList<>();
+        for (Map.Entry<String, ConcurrentMap<String, Lease>> service : services.entrySet()) {
+            if (watcher.matches(service.getKey())) {
+                for (Lease lease : service.getValue().values()) {
+                    view.add(event(RegistryEvent.Type.REGISTERED, lease.info));
+                }
+            }
+        }
+        watcher.replay(view);
+    }
+
+    private void expireLeases() {
+        long now = System.nanoTime();
+        services.forEach((name, instances) -> instances.forEach((id, lease) -> {
+            if (now - lease.expiresAt > 0 && instances.remove(id, lease)) {
+                System.out.println("Lease expired: " + name + " [" + id + "]");
+                publish(RegistryEvent.Type.DEREGISTERED, lease.info);
+            }
+        }));
+    }
+
+    private List<ServiceInfo> live(String name) {
+        ConcurrentMap<String, Lease> instances = services.get(name);
+        if (instances == null) {
+            return List.of();
+        }
+        List<ServiceInfo> live = new ArrayList<>(instances.size());
+        for (Lease lease : instances.values()) {
+            live.add(lease.info);
+        }
+        return live;
+    }
+
+    private ConcurrentMap<String, Lease> instances(String name) {
+        return services.computeIfAbsent(name, k -> new ConcurrentHashMap<>());
+    }
+
+    private long leaseNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+    }
+
+    private static ServiceInfo withInstanceId(ServiceInfo info) {
+        if (!info.getInstanceId().isEmpty()) {
+            return info;
+        }
+        return info.toBuilder().setInstanceId(info.getHost() + ":" + info.getPort()).build();
+    }
+
+    private void publish(RegistryEvent.Type type, ServiceInfo info) {
+        RegistryEvent event = event(type, info);
+        for (Watcher watcher : watchers) {
+            if (watcher.matches(info.getName())) {
+                watcher.send(event);
+            }
+        }
+    }
+
+    private static RegistryEvent event(RegistryEvent.Type type, ServiceInfo info) {
+        return RegistryEvent.newBuilder().setType(type).setService(info).build();
+    }
+
+    /**
+     * One watch stream. StreamObserver is not thread-safe and registrations can
+     * arrive concurrently, so every send holds the watcher's lock; live events
+     * published before the initial view has gone out are queued behind it.
+     */
+    private static final class Watcher {
+        private final String name;
+        private final StreamObserver<RegistryEvent> observer;
+        // Guarded by this; null once the view has been replayed
+        private List<RegistryEvent> queued = new ArrayList<>();
+
+        Watcher(String name, StreamObserver<RegistryEvent> observer) {
+            this.name = name;
+            this.observer = observer;
+        }
+
+        boolean matches(String serviceName) {
+            return name.isEmpty() || name.equals(serviceName);
+        }
+
+        synchronized void send(RegistryEvent event) {
+            if (queued != null) {
+                queued.add(event);
+            } else {
+                deliver(event);
+            }
+        }
+
+        synchronized void replay(List<RegistryEvent> view) {
+            view.forEach(this::deliver);
+            queued.forEach(this::deliver);
+            queued = null;
+        }
+
+        private void deliver(RegistryEvent event) {
+            try {
+                observer.onNext(event);
+            } catch (RuntimeException e) {
+                // Cancelled watchers are removed by their cancel handler
+                System.err.println("Failed to notify registry watcher: " + e.getMessage());
+            }
+        }
+    }
+
     public static void main(String[] args) throws Exception {
         // Start the Service Registry server
         int port = 9000;
-        Server server = ServerBuilder.forPort(port)
+        Server server = Metrics.instrument(ServerThreads.configure(ServerBuilder.forPort(port), "ServiceRegistry"))
                 .addService(new ServiceRegistryImpl())
                 .build()
                 .start();
         System.out.println("Service Registry started on port " + port);
+        int metricsPort = Integer.getInteger("recruitment.metricsPort", port + 1000);
+        Metrics.serve(metricsPort);
+        System.out.println("Metrics at http://localhost:" + metricsPort + "/metrics");
         server.awaitTermination();
     }
 }
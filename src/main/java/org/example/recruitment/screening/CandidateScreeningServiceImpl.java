@@ -1,73 +1,203 @@
 package org.example.recruitment.screening;
 
+import com.google.protobuf.ByteString;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import screening.CandidateScreeningServiceGrpc;
+import screening.CandidateScreeningServiceOuterClass.CacheStats;
+import screening.CandidateScreeningServiceOuterClass.CacheStatsRequest;
 import screening.CandidateScreeningServiceOuterClass.ResumeRequest;
 import screening.CandidateScreeningServiceOuterClass.ScreeningResult;
 import screening.CandidateScreeningServiceOuterClass.ScreeningQuery;
-import registry.ServiceRegistryGrpc;
-import registry.ServiceRegistryOuterClass.ServiceInfo;
-import registry.ServiceRegistryOuterClass.RegisterResponse;
+import screening.CandidateScreeningServiceOuterClass.Skill;
+import events.Events.ScreeningEvent;
+import org.example.recruitment.metrics.Metrics;
+import org.example.recruitment.registry.ServiceRegistration;
+import org.example.recruitment.server.ServerThreads;
+import org.example.recruitment.storage.EventLog;
 
 public class CandidateScreeningServiceImpl extends CandidateScreeningServiceGrpc.CandidateScreeningServiceImplBase {
-    // Map from candidate email to their ScreeningResult
-    private final Map<String, ScreeningResult> results = new HashMap<>();
+    // Uploads larger than this (UTF-8 bytes across all chunks) are rejected as soon as they cross it
+    static final long DEFAULT_MAX_RESUME_BYTES = Long.getLong("recruitment.screening.maxResumeBytes", 8L << 20);
+    static final int RESULT_CACHE_SIZE = Integer.getInteger("recruitment.screening.cacheSize", 100_000);
+    static final long RESULT_TTL_MINUTES = Long.getLong("recruitment.screening.resultTtlMinutes", 24 * 60);
+    static final int MATCHER_CACHE_SIZE = Integer.getInteger("recruitment.screening.matcherCacheSize", 1024);
+
+    // Latest result per candidate email, written through to the log; the job
+    // service keeps every application's result, so evicting one here only
+    // costs a lookup by email
+    private final ScreeningResultCache results;
+    // Every stored result, so results survive a restart
+    private final EventLog log;
+    // Compiled skill matchers by job id, recompiled when a job's skills change. Nothing
+    // here learns that a job was closed, so the least recently used go past the cap
+    private final Map<Integer, KeywordMatcher> matchers = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, KeywordMatcher> eldest) {
+            return size() > MATCHER_CACHE_SIZE;
+        }
+    };
+    private final long maxResumeBytes;
+
+    public CandidateScreeningServiceImpl() {
+        this(DEFAULT_MAX_RESUME_BYTES);
+    }
+
+    /** Keeps its log apart from other instances' under the data directory, by {@code instance}. */
+    public CandidateScreeningServiceImpl(String instance) {
+        this(DEFAULT_MAX_RESUME_BYTES, true, instance);
+    }
+
+    public CandidateScreeningServiceImpl(long maxResumeBytes) {
+        this(maxResumeBytes, true);
+    }
+
+    public CandidateScreeningServiceImpl(long maxResumeBytes, boolean persistent) {
+        this(maxResumeBytes, persistent, "");
+    }
+
+    public CandidateScreeningServiceImpl(long maxResumeBytes, boolean persistent, String instance) {
+        this.maxResumeBytes = maxResumeBytes;
+        this.results = new ScreeningResultCache(RESULT_CACHE_SIZE, RESULT_TTL_MINUTES, TimeUnit.MINUTES,
+                this::persist);
+        try {
+            this.log = persistent
+                    ? EventLog.open("screening", instance, this::replay, this::snapshot)
+                    : EventLog.inMemory("screening");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the screening event log", e);
+        }
+    }
+
+    /** Flushes the event log; call once the server has stopped taking calls. */
+    public void close() throws InterruptedException {
+        log.close();
+    }
+
+    private void replay(ByteBuffer buffer) throws IOException {
+        ScreeningEvent event = ScreeningEvent.parseFrom(buffer);
+        if (event.hasResultStored()) {
+            // Logged before store times were: counts as stored now, as it always did
+            long storedAt = event.getStoredAtMillis() != 0 ? event.getStoredAtMillis() : System.currentTimeMillis();
+            results.restore(new ScreeningResultCache.Stored(event.getResultStored(), storedAt));
+        }
+    }
+
+    private CompletableFuture<Void> persist(ScreeningResultCache.Stored stored) {
+        return log.append(event(stored));
+    }
+
+    private void snapshot(EventLog.SnapshotWriter out) throws IOException {
+        for (ScreeningResultCache.Stored stored : results.results()) {
+            out.write(event(stored));
+        }
+    }
+
+    private static ScreeningEvent event(ScreeningResultCache.Stored stored) {
+        return ScreeningEvent.newBuilder()
+                .setResultStored(stored.result())
+                .setStoredAtMillis(stored.storedAtMillis())
+                .build();
+    }
 
     @Override
     public StreamObserver<ResumeRequest> submitResume(StreamObserver<ScreeningResult> responseObserver) {
         return new StreamObserver<ResumeRequest>() {
             String candidateEmail = "";
-            StringBuilder resumeBuilder = new StringBuilder();
+            // Scores each chunk as it arrives instead of buffering the whole resume
+            ResumeScorer scorer;
+            long receivedBytes;
+            boolean aborted;
 
             @Override
             public void onNext(ResumeRequest req) {
-                // Accumulate resume content
-                if (candidateEmail.isEmpty()) {
-                    candidateEmail = req.getCandidateEmail();  // capture candidate's email from first message
+                if (aborted) {
+                    return;
+                }
+                if (scorer == null) {
+                    // The first message carries the candidate and the job's skills
+                    candidateEmail = req.getCandidateEmail();
+                    scorer = new ResumeScorer(matcher(req.getJobId(), req.getSkillsList()));
+                }
+                ByteString chunk = req.getContentChunkBytes();
+                receivedBytes += chunk.size();
+                if (receivedBytes > maxResumeBytes) {
+                    aborted = true;
+                    responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                            .withDescription("Resume exceeds " + maxResumeBytes + " bytes")
+                            .asRuntimeException());
+                    return;
                 }
-                resumeBuilder.append(req.getContentChunk());
-                resumeBuilder.append("\n");
+                scorer.accept(chunk);
             }
 
             @Override
             public void onError(Throwable t) {
                 System.err.println("Error receiving resume: " + t.getMessage());
-                // We could abort or simply complete
             }
 
             @Override
             public void onCompleted() {
-                // Resume fully received, now process it
-                String fullResumeText = resumeBuilder.toString();
-                int score = calculateScore(fullResumeText);
-                String feedback;
-                if (score > 80) {
-                    feedback = "Strong candidate";
-                } else if (score > 50) {
-                    feedback = "Average candidate";
-                } else {
-                    feedback = "Needs improvement";
+                if (aborted) {
+                    return;
+                }
+                if (scorer == null) {
+                    scorer = new ResumeScorer();
                 }
                 ScreeningResult result = ScreeningResult.newBuilder()
                         .setCandidateEmail(candidateEmail)
-                        .setScore(score)
-                        .setFeedback(feedback)
+                        .setScore(scorer.score())
+                        .setFeedback(scorer.feedback())
                         .build();
-                // Store the result for later retrieval
-                results.put(candidateEmail, result);
-                // Return the result to the caller
-                responseObserver.onNext(result);
-                responseObserver.onCompleted();
+                // Store the result for later retrieval, returning it to the caller once it is durable
+                results.put(result)
+                        .whenComplete((ignored, error) -> {
+                            if (error != null) {
+                                responseObserver.onError(Status.UNAVAILABLE
+                                        .withDescription("Could not persist the result: " + error.getMessage())
+                                        .asRuntimeException());
+                                return;
+                            }
+                            responseObserver.onNext(result);
+                            responseObserver.onCompleted();
+                        });
             }
         };
     }
 
+    private KeywordMatcher matcher(int jobId, List<Skill> skills) {
+        if (skills.isEmpty()) {
+            return null;
+        }
+        if (jobId == 0) {
+            return KeywordMatcher.compile(skills);
+        }
+        KeywordMatcher cached;
+        synchronized (matchers) {
+            cached = matchers.get(jobId);
+        }
+        if (cached == null || !cached.compiledFrom(skills)) {
+            // Compiled outside the lock; a racing compile of the same skills just does it twice
+            cached = KeywordMatcher.compile(skills);
+            synchronized (matchers) {
+                matchers.put(jobId, cached);
+            }
+        }
+        return cached;
+    }
+
     @Override
     public void getScreeningResult(ScreeningQuery request, StreamObserver<ScreeningResult> responseObserver) {
         String email = request.getCandidateEmail();
@@ -84,36 +214,51 @@ public class CandidateScreeningServiceImpl extends CandidateScreeningServiceGrpc
         responseObserver.onCompleted();
     }
 
-    // Simple resume scoring logic: for example, score = number of words (capped at 100)
-    private int calculateScore(String resumeText) {
+    @Override
+    public void getCacheStats(CacheStatsRequest request, StreamObserver<CacheStats> responseObserver) {
+        responseObserver.onNext(results.stats());
+        responseObserver.onCompleted();
+    }
+
+    // Scores a complete resume in one go, e.g. one already stored
+    static int calculateScore(String resumeText) {
         if (resumeText == null || resumeText.isEmpty()) return 0;
-        String[] words = resumeText.trim().split("\\s+");
-        int score = Math.min(100, words.length);
-        return score;
+        ResumeScorer scorer = new ResumeScorer();
+        scorer.accept(ByteString.copyFromUtf8(resumeText));
+        return scorer.score();
     }
 
     public static void main(String[] args) throws Exception {
         // Connect to Service Registry
         ManagedChannel regChannel = ManagedChannelBuilder.forAddress("localhost", 9000)
                 .usePlaintext().build();
-        ServiceRegistryGrpc.ServiceRegistryBlockingStub registryStub = ServiceRegistryGrpc.newBlockingStub(regChannel);
 
         // Start gRPC server for Screening Service
-        int port = 9002;
-        Server server = ServerBuilder.forPort(port)
-                .addService(new CandidateScreeningServiceImpl())
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 9002;
+        CandidateScreeningServiceImpl service = new CandidateScreeningServiceImpl(String.valueOf(port));
+        Server server = Metrics.instrument(ServerThreads.configure(ServerBuilder.forPort(port), "CandidateScreeningService"))
+                .addService(service)
                 .build()
                 .start();
         System.out.println("Candidate Screening Service started on port " + port);
+        int metricsPort = Integer.getInteger("recruitment.metricsPort", port + 1000);
+        Metrics.serve(metricsPort);
+        System.out.println("Metrics at http://localhost:" + metricsPort + "/metrics");
 
-        // Register this service with the registry
-        ServiceInfo serviceInfo = ServiceInfo.newBuilder()
-                .setName("CandidateScreeningService")
-                .setHost("localhost")
-                .setPort(port)
-                .build();
-        RegisterResponse regResp = registryStub.register(serviceInfo);
-        System.out.println("Service Registry response: " + regResp.getMessage());
+        // Register this service with the registry and keep its lease alive
+        ServiceRegistration registration =
+                ServiceRegistration.register(regChannel, "CandidateScreeningService", "localhost", port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            registration.close();
+            try {
+                if (!server.shutdown().awaitTermination(5, TimeUnit.SECONDS)) {
+                    server.shutdownNow().awaitTermination();
+                }
+                service.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
 
         server.awaitTermination();
     }
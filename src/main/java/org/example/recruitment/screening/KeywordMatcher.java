@@ -0,0 +1,253 @@
+package org.example.recruitment.screening;
+
+import com.google.protobuf.ByteString;
+import screening.CandidateScreeningServiceOuterClass.Skill;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * A job's weighted skill keywords compiled into an Aho-Corasick automaton, so a
+ * resume is matched against all of them in one pass over its bytes at constant
+ * cost per byte, however many keywords the job has.
+ *
+ * <p>Text and keywords go through the same normalization: ASCII letters are
+ * lowercased, digits, '+', '#' and non-ASCII bytes are kept, and everything else
+ * becomes a single space. Keywords are matched as whole words by padding them
+ * with a space on both sides, so "java" matches "Java," but not "javascript",
+ * and "node.js" matches "Node.js".
+ *
+ * <p>The goto function is precomputed into a dense table over only the bytes
+ * that occur in keywords, so stepping is a single array read. Instances are
+ * immutable and safe to share between threads.
+ */
+public final class KeywordMatcher {
+
+    private static final int SPACE = ' ';
+    // Byte class for word bytes that appear in no keyword
+    private static final int OTHER = 0;
+
+    private final List<Skill> skills;
+    private final String[] keywords;
+    private final int[] weights;
+    private final int totalWeight;
+    private final int[] byteClass = new int[256];
+    // byteClass of each raw text byte after normalization, so scanning needs no branches to normalize
+    private final int[] rawClass = new int[256];
+    private final int spaceClass;
+    private final int classes;
+    private final int[] transitions;
+    // Keyword indexes ending at each state, including those reached through failure links
+    private final int[][] outputs;
+    private final int root;
+
+    private KeywordMatcher(List<Skill> skills) {
+        this.skills = List.copyOf(skills);
+        List<byte[]> patterns = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<Integer> weightList = new ArrayList<>();
+        for (Skill skill : skills) {
+            byte[] pattern = pattern(skill.getKeyword());
+            if (pattern != null) {
+                patterns.add(pattern);
+                names.add(skill.getKeyword().trim());
+                weightList.add(Math.max(1, skill.getWeight()));
+            }
+        }
+        this.keywords = names.toArray(new String[0]);
+        this.weights = weightList.stream().mapToInt(Integer::intValue).toArray();
+        this.totalWeight = Arrays.stream(weights).sum();
+
+        int next = 1;
+        for (byte[] pattern : patterns) {
+            for (byte b : pattern) {
+                if (byteClass[b & 0xFF] == OTHER) {
+                    byteClass[b & 0xFF] = next++;
+                }
+            }
+        }
+        byteClass[SPACE] = byteClass[SPACE] == OTHER ? next++ : byteClass[SPACE];
+        this.classes = next;
+        this.spaceClass = byteClass[SPACE];
+        for (int b = 0; b < 256; b++) {
+            rawClass[b] = byteClass[normalize((byte) b)];
+        }
+
+        // Trie, with -1 for missing edges
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        trie.add(newRow());
+        ends.add(new ArrayList<>());
+        for (int k = 0; k < patterns.size(); k++) {
+            int state = 0;
+            for (byte b : patterns.get(k)) {
+                int c = byteClass[b & 0xFF];
+                if (trie.get(state)[c] < 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(newRow());
+                    ends.add(new ArrayList<>());
+                }
+                state = trie.get(state)[c];
+            }
+            ends.get(state).add(k);
+        }
+
+        // Breadth-first: resolve failure links and fill in every missing edge
+        int states = trie.size();
+        this.transitions = new int[states * classes];
+        this.outputs = new int[states][];
+        int[] fail = new int[states];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < classes; c++) {
+            int child = trie.get(0)[c];
+            transitions[c] = Math.max(child, 0);
+            if (child > 0) {
+                queue.add(child);
+            }
+        }
+        outputs[0] = new int[0];
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            List<Integer> out = new ArrayList<>(ends.get(state));
+            for (int k : outputs[fail[state]]) {
+                out.add(k);
+            }
+            outputs[state] = out.stream().mapToInt(Integer::intValue).toArray();
+            for (int c = 0; c < classes; c++) {
+                int child = trie.get(state)[c];
+                if (child > 0) {
+                    fail[child] = transitions[fail[state] * classes + c];
+                    transitions[state * classes + c] = child;
+                    queue.add(child);
+                } else {
+                    transitions[state * classes + c] = transitions[fail[state] * classes + c];
+                }
+            }
+        }
+        // Store edges as the target's row offset, saving a multiply per step, and flag edges
+        // into states that complete a keyword by complementing them, so the common
+        // no-match step skips the outputs lookup entirely
+        for (int i = 0; i < transitions.length; i++) {
+            int target = transitions[i];
+            transitions[i] = outputs[target].length > 0 ? ~(target * classes) : target * classes;
+        }
+        // Every chunk starts as if preceded by a space
+        this.root = transitions[spaceClass];
+    }
+
+    public static KeywordMatcher compile(List<Skill> skills) {
+        return new KeywordMatcher(skills);
+    }
+
+    /** Whether this matcher was compiled from exactly these skills. */
+    public boolean compiledFrom(List<Skill> skills) {
+        return this.skills.equals(skills);
+    }
+
+    public boolean isEmpty() {
+        return keywords.length == 0;
+    }
+
+    /** A fresh scan, for text that arrives in chunks; chunk boundaries act as spaces. */
+    public Scan scan() {
+        return new Scan();
+    }
+
+    public final class Scan {
+        private final BitSet matched = new BitSet(keywords.length);
+        // Carried over, so a multi-word keyword still matches across the space a boundary stands for
+        private int state = root;
+
+        private Scan() {
+        }
+
+        public void accept(ByteString chunk) {
+            int state = this.state;
+            // Whatever ended the previous chunk, it was followed by a space
+            boolean space = true;
+            for (int i = 0, n = chunk.size(); i < n; i++) {
+                int c = rawClass[chunk.byteAt(i) & 0xFF];
+                if (c == spaceClass) {
+                    if (space) {
+                        continue;
+                    }
+                    space = true;
+                } else {
+                    space = false;
+                }
+                state = step(state, c);
+            }
+            if (!space) {
+                state = step(state, spaceClass);
+            }
+            this.state = state;
+        }
+
+        // state is a row offset into transitions
+        private int step(int state, int c) {
+            int next = transitions[state + c];
+            if (next < 0) {
+                next = ~next;
+                for (int k : outputs[next / classes]) {
+                    matched.set(k);
+                }
+            }
+            return next;
+        }
+
+        /** Matched share of the total skill weight, 0-100. */
+        public int score() {
+            if (totalWeight == 0) {
+                return 0;
+            }
+            int weight = 0;
+            for (int k = matched.nextSetBit(0); k >= 0; k = matched.nextSetBit(k + 1)) {
+                weight += weights[k];
+            }
+            return Math.round(100f * weight / totalWeight);
+        }
+
+        public List<String> matchedKeywords() {
+            return matched.stream().mapToObj(k -> keywords[k]).toList();
+        }
+    }
+
+    private int[] newRow() {
+        int[] row = new int[classes];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    // Normalized keyword bytes padded with a space on each side; null if nothing is left
+    private static byte[] pattern(String keyword) {
+        byte[] raw = keyword.getBytes(StandardCharsets.UTF_8);
+        byte[] out = new byte[raw.length + 2];
+        int n = 0;
+        out[n++] = SPACE;
+        for (byte b : raw) {
+            int c = normalize(b);
+            if (c != SPACE || out[n - 1] != SPACE) {
+                out[n++] = (byte) c;
+            }
+        }
+        if (out[n - 1] != SPACE) {
+            out[n++] = SPACE;
+        }
+        return n <= 2 ? null : Arrays.copyOf(out, n);
+    }
+
+    private static int normalize(byte b) {
+        if (b >= 'A' && b <= 'Z') {
+            return b + ('a' - 'A');
+        }
+        if ((b >= 'a' && b <= 'z') || (b >= '0' && b <= '9') || b == '+' || b == '#' || b < 0) {
+            return b & 0xFF;
+        }
+        return SPACE;
+    }
+}
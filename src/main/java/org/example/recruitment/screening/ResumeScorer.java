@@ -0,0 +1,80 @@
+package org.example.recruitment.screening;
+
+import com.google.protobuf.ByteString;
+
+import java.util.List;
+
+/**
+ * Scores a resume while it streams in, one chunk at a time. Only the counts the
+ * score is derived from are kept, never the text, so memory stays constant
+ * however large the resume is. Words are runs of non-whitespace characters; the
+ * end of a chunk counts as whitespace, matching the newline that used to be
+ * inserted between chunks before scoring the joined text.
+ *
+ * <p>When the job has skill keywords the score is the matched share of their
+ * weight, found by the job's {@link KeywordMatcher}; otherwise it falls back to
+ * the word count. As with the old split on {@code \s+}, which always gave at
+ * least one piece, that count is never below 1, even for a blank resume.
+ *
+ * <p>Chunks are scanned as raw UTF-8 straight from the protobuf field, so no
+ * String is ever decoded: whitespace is ASCII, and bytes of multi-byte
+ * characters never are.
+ */
+public class ResumeScorer {
+
+    private final KeywordMatcher.Scan skills;
+    private long words;
+
+    public ResumeScorer() {
+        this(null);
+    }
+
+    public ResumeScorer(KeywordMatcher matcher) {
+        this.skills = matcher == null || matcher.isEmpty() ? null : matcher.scan();
+    }
+
+    /** Scores the chunk; allocation-free, no regex. */
+    public void accept(ByteString chunk) {
+        if (skills != null) {
+            skills.accept(chunk);
+            return;
+        }
+        boolean inWord = false;
+        for (int i = 0, n = chunk.size(); i < n; i++) {
+            if (isWhitespace(chunk.byteAt(i))) {
+                inWord = false;
+            } else if (!inWord) {
+                inWord = true;
+                words++;
+            }
+        }
+    }
+
+    // Skill match percentage, or without skills the number of words, from 1 to 100
+    public int score() {
+        return skills != null ? skills.score() : Math.clamp(words, 1, 100);
+    }
+
+    public String feedback() {
+        String verdict = feedback(score());
+        if (skills == null) {
+            return verdict;
+        }
+        List<String> matched = skills.matchedKeywords();
+        return verdict + " (matched: " + (matched.isEmpty() ? "none" : String.join(", ", matched)) + ")";
+    }
+
+    static String feedback(int score) {
+        if (score > 80) {
+            return "Strong candidate";
+        } else if (score > 50) {
+            return "Average candidate";
+        }
+        return "Needs improvement";
+    }
+
+    // Same set as the regex \s
+    private static boolean isWhitespace(byte c) {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f' || c == '\u000B';
+    }
+}
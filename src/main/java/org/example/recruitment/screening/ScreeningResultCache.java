@@ -0,0 +1,176 @@
+package org.example.recruitment.screening;
+
+import screening.CandidateScreeningServiceOuterClass.CacheStats;
+import screening.CandidateScreeningServiceOuterClass.ScreeningResult;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Screening results by candidate email, bounded in both size and age.
+ *
+ * <p>Lookups are a plain ConcurrentHashMap read plus a volatile one, so they
+ * never lock. Each hit marks its entry as recently used. Writes are serialized
+ * on one lock, which also runs eviction: a CLOCK sweep approximating LRU that
+ * spares an entry read since the hand last passed it. Expired entries are
+ * treated as missing by lookups and dropped by the next sweep.
+ *
+ * <p>Every {@link #put} is written through to durable storage, in the order
+ * the puts took the lock, and its future completes once it is durable.
+ * {@link #restore} fills the cache from that storage without writing anything.
+ * Each result is stored with the wall-clock time it was put, so a restored
+ * one only lives out what is left of its TTL, however often it is restored.
+ */
+class ScreeningResultCache {
+
+    private static final class Entry {
+        final String email;
+        // Result and expiry change together, so readers never pair one with the other's
+        volatile Value value;
+        volatile boolean referenced;
+
+        Entry(String email, Value value) {
+            this.email = email;
+            this.value = value;
+        }
+    }
+
+    private record Value(ScreeningResult result, long storedAtMillis, long expiresAt) {
+        boolean expired(long now) {
+            return now - expiresAt > 0;
+        }
+    }
+
+    /** A result and when it was first put, in epoch milliseconds. */
+    record Stored(ScreeningResult result, long storedAtMillis) {
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Clock order, oldest first; guarded by this
+    private final ArrayDeque<Entry> clock = new ArrayDeque<>();
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Function<Stored, CompletableFuture<Void>> writeThrough;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    ScreeningResultCache(int maxEntries, long ttl, TimeUnit unit,
+                         Function<Stored, CompletableFuture<Void>> writeThrough) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.writeThrough = writeThrough;
+    }
+
+    /** The live result for the email, or null. */
+    ScreeningResult get(String email) {
+        Entry entry = entries.get(email);
+        Value value = entry == null ? null : entry.value;
+        if (value == null || value.expired(System.nanoTime())) {
+            misses.increment();
+            return null;
+        }
+        // Skip the write when already set, so hot entries don't bounce their cache line
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        hits.increment();
+        return value.result();
+    }
+
+    /**
+     * Stores the result, replacing any earlier one for the email, and writes it
+     * through. Both happen under the lock, so results for one email reach
+     * storage in the order they reached the cache and a replay ends on the
+     * same one; the write-through only has to queue the result.
+     */
+    synchronized CompletableFuture<Void> put(ScreeningResult result) {
+        Stored stored = new Stored(result, System.currentTimeMillis());
+        store(stored);
+        return writeThrough.apply(stored);
+    }
+
+    /** Stores a result read back from durable storage, unless its TTL has already run out. */
+    synchronized void restore(Stored stored) {
+        store(stored);
+    }
+
+    private void store(Stored stored) {
+        ScreeningResult result = stored.result();
+        String email = result.getCandidateEmail();
+        long now = System.nanoTime();
+        long age = TimeUnit.MILLISECONDS.toNanos(Math.max(0, System.currentTimeMillis() - stored.storedAtMillis()));
+        if (age >= ttlNanos) {
+            return;
+        }
+        Value value = new Value(result, stored.storedAtMillis(), now + ttlNanos - age);
+        Entry entry = entries.get(email);
+        if (entry != null) {
+            // Removals only happen under this lock, so the entry is still mapped
+            entry.value = value;
+            entry.referenced = true;
+            return;
+        }
+        // Room is made first, so the new entry, not yet referenced, can't be the one swept out
+        if (entries.size() >= maxEntries) {
+            sweep(now);
+        }
+        entry = new Entry(email, value);
+        entries.put(email, entry);
+        clock.addLast(entry);
+    }
+
+    /** Every live result, for snapshots. */
+    List<Stored> results() {
+        long now = System.nanoTime();
+        List<Stored> live = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            Value value = entry.value;
+            if (!value.expired(now)) {
+                live.add(new Stored(value.result(), value.storedAtMillis()));
+            }
+        }
+        return live;
+    }
+
+    // Moves the hand until there is room for one more entry; at most two laps,
+    // since the first clears every referenced bit it passes
+    private void sweep(long now) {
+        for (int steps = 2 * clock.size(); entries.size() >= maxEntries && steps > 0; steps--) {
+            Entry entry = clock.pollFirst();
+            if (entry.value.expired(now)) {
+                entries.remove(entry.email);
+                expirations.increment();
+            } else if (entry.referenced) {
+                entry.referenced = false;
+                clock.addLast(entry);
+            } else {
+                entries.remove(entry.email);
+                evictions.increment();
+            }
+        }
+    }
+
+    CacheStats stats() {
+        return CacheStats.newBuilder()
+                .setSize(entries.size())
+                .setMaxEntries(maxEntries)
+                .setTtlSeconds(TimeUnit.NANOSECONDS.toSeconds(ttlNanos))
+                .setHits(hits.sum())
+                .setMisses(misses.sum())
+                .setEvictions(evictions.sum())
+                .setExpirations(expirations.sum())
+                .build();
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.recruitment.server;
+
+import io.grpc.Metadata;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Which threads run request handlers, for the gRPC servers and the gateway,
+ * chosen by {@code recruitment.threads}:
+ * <ul>
+ *   <li>{@code platform} (default): gRPC's cached thread pool, and Jetty's own
+ *   pool of up to 250 threads for the gateway.</li>
+ *   <li>{@code virtual}: every handler task gets a virtual thread of its own.
+ *   At most {@code recruitment.maxConcurrency} of them run at once per server;
+ *   up to {@code recruitment.maxQueued} more park until one finishes, holding
+ *   no platform thread meanwhile.</li>
+ * </ul>
+ *
+ * <p>Past that bound a task does not queue. It runs at once, flagged as
+ * {@link #overloaded()}, so that whatever it starts is refused instead of
+ * waiting: a new gRPC call is closed with RESOURCE_EXHAUSTED before it reaches
+ * the service, and the gateway answers 503. Callbacks of calls admitted
+ * earlier are not refused, so under overload each such call may run one
+ * callback beyond the limit.
+ *
+ * <p>Only handler work moves to virtual threads. Netty's event loops and
+ * Jetty's selectors stay on platform threads: a selector blocked in select()
+ * keeps its carrier, and with a handful of carriers that stalls everything
+ * else queued behind it.
+ *
+ * <p>Each server gets its own limit, so a handler waiting on a call to another
+ * service never waits for a permit the callee needs. The TCP and in-process
+ * servers of one service share theirs. For streaming calls the limit counts
+ * callbacks being run, not open streams.
+ */
+public final class ServerThreads {
+
+    public static final boolean VIRTUAL = System.getProperty("recruitment.threads", "platform").equals("virtual");
+    public static final int MAX_CONCURRENCY = Integer.getInteger("recruitment.maxConcurrency", 512);
+    public static final int MAX_QUEUED = Integer.getInteger("recruitment.maxQueued", 4096);
+
+    private static final Map<String, Limiter> LIMITERS = new ConcurrentHashMap<>();
+    // Set on the threads of tasks started past the queue bound; each task has a thread of its own
+    private static final ThreadLocal<Boolean> OVERLOADED = new ThreadLocal<>();
+    private static final ServerInterceptor ADMISSION = new ServerInterceptor() {
+        @Override
+        public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                     ServerCallHandler<ReqT, RespT> next) {
+            if (overloaded()) {
+                call.close(Status.RESOURCE_EXHAUSTED.withDescription("Server is overloaded, please retry later"),
+                        new Metadata());
+                return new ServerCall.Listener<>() {
+                };
+            }
+            return next.startCall(call, headers);
+        }
+    };
+
+    private ServerThreads() {
+    }
+
+    /** The handler executor for the named server, or null to keep the transport's own. */
+    public static Executor executor(String serverName) {
+        return VIRTUAL ? LIMITERS.computeIfAbsent(serverName, Limiter::new) : null;
+    }
+
+    /**
+     * Applies the handler executor for the named server to the builder, and
+     * refuses calls it has no room to queue.
+     */
+    public static ServerBuilder<?> configure(ServerBuilder<?> builder, String serverName) {
+        Executor executor = executor(serverName);
+        return executor == null ? builder : builder.executor(executor).intercept(ADMISSION);
+    }
+
+    /** Whether the current task was started with the server's queue already full. */
+    public static boolean overloaded() {
+        return OVERLOADED.get() != null;
+    }
+
+    public static Map<String, Object> stats() {
+        Map<String, Object> stats = new TreeMap<>();
+        stats.put("mode", VIRTUAL ? "virtual" : "platform");
+        stats.put("maxConcurrency", MAX_CONCURRENCY);
+        stats.put("maxQueued", MAX_QUEUED);
+        LIMITERS.forEach((name, limiter) -> stats.put(name, limiter.stats()));
+        return stats;
+    }
+
+    private static final class Limiter implements Executor {
+        private final Semaphore permits = new Semaphore(MAX_CONCURRENCY);
+        private final ThreadFactory threads;
+        private final LongAdder tasks = new LongAdder();
+        private final LongAdder queued = new LongAdder();
+        private final LongAdder overloaded = new LongAdder();
+        // Tasks accepted and not yet finished, running or waiting for a permit
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+
+        Limiter(String name) {
+            this.threads = Thread.ofVirtual().name(name + "-", 0).factory();
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (pending.incrementAndGet() > MAX_CONCURRENCY + MAX_QUEUED) {
+                pending.decrementAndGet();
+                overloaded.increment();
+                threads.newThread(() -> {
+                    OVERLOADED.set(Boolean.TRUE);
+                    task.run();
+                }).start();
+                return;
+            }
+            threads.newThread(() -> {
+                if (!permits.tryAcquire()) {
+                    queued.increment();
+                    permits.acquireUninterruptibly();
+                }
+                peak.accumulateAndGet(MAX_CONCURRENCY - permits.availablePermits(), Math::max);
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                    pending.decrementAndGet();
+                    tasks.increment();
+                }
+            }).start();
+        }
+
+        Map<String, Object> stats() {
+            Map<String, Object> stats = new TreeMap<>();
+            stats.put("running", MAX_CONCURRENCY - permits.availablePermits());
+            stats.put("waiting", Math.max(0, pending.get() - (MAX_CONCURRENCY - permits.availablePermits())));
+            stats.put("overloaded", overloaded.sum());
+            stats.put("peak", peak.get());
+            stats.put("tasks", tasks.sum());
+            stats.put("queued", queued.sum());
+            return stats;
+        }
+    }
+}
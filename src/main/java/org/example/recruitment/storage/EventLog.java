@@ -0,0 +1,514 @@
+package org.example.recruitment.storage;
+
+import com.google.protobuf.MessageLite;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, write-ahead event log for a service's state, with group commit
+ * and periodic snapshots.
+ *
+ * <p>Callers apply a change in memory first, then append an event describing
+ * it and acknowledge once the returned future completes, which is when the
+ * event is on disk. A single writer thread takes everything queued since its
+ * last write, writes it with one call and fsyncs once, so concurrent appends
+ * share the cost of a sync rather than paying for one each.
+ *
+ * <p>The log is a series of numbered segment files. Every
+ * {@code recruitment.wal.snapshotEvery} events the writer rolls to a new
+ * segment and, on another thread, the owner writes its whole current state as
+ * events into a snapshot covering every older segment, which are then deleted.
+ * Since changes reach memory before the log, the snapshot holds at least
+ * everything in the segments it replaces; the newer segment may replay some
+ * changes the snapshot already has, so events must be idempotent and replay
+ * must leave the last event for an entity winning.
+ *
+ * <p>Recovery maps the snapshot and the segments after it into memory and
+ * hands each record to the owner in order. A record cut short by a crash ends
+ * its segment, which is truncated there.
+ *
+ * <p>Records are framed as a little-endian length, a CRC32C of the payload,
+ * then the payload, normally an encoded protobuf message.
+ */
+public final class EventLog implements AutoCloseable {
+
+    /** Where service logs live, one subdirectory each; empty disables persistence. */
+    public static final String DATA_DIR = System.getProperty("recruitment.dataDir", "data");
+    static final long SNAPSHOT_EVERY = Long.getLong("recruitment.wal.snapshotEvery", 1_000_000);
+    // Off trades durability across an OS crash for throughput; a process crash loses nothing either way
+    static final boolean FSYNC = Boolean.parseBoolean(System.getProperty("recruitment.wal.fsync", "true"));
+    static final long MAX_SEGMENT_BYTES = 1L << 30;
+    private static final int HEADER_BYTES = 8;
+    private static final long MAP_WINDOW_BYTES = 1L << 30;
+    private static final int MAX_BATCH = 4096;
+    private static final Pattern FILE_NAME = Pattern.compile("(\\d{12})\\.(log|snapshot)");
+
+    /** Applies one recovered event; the buffer is only valid during the call. */
+    public interface Replayer {
+        void replay(ByteBuffer event) throws IOException;
+    }
+
+    /** Writes the owner's whole current state as events. */
+    public interface Snapshotter {
+        void snapshot(SnapshotWriter out) throws IOException;
+    }
+
+    public interface SnapshotWriter {
+        void write(MessageLite event) throws IOException;
+    }
+
+    private record Pending(byte[] payload, CompletableFuture<Void> done) {
+    }
+
+    private static final Pending STOP = new Pending(new byte[0], new CompletableFuture<>());
+
+    private final String name;
+    private final Path dir;
+    private final Snapshotter snapshotter;
+    private final long snapshotEvery;
+    private final boolean fsync;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final AtomicBoolean snapshotting = new AtomicBoolean();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private FileChannel segment;
+    private long segmentSeq;
+    private long segmentBytes;
+    private long sinceSnapshot;
+    private ByteBuffer batchBuffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+    private final AtomicLong snapshots = new AtomicLong();
+    private long recoveredEvents;
+    private long recoveryMillis;
+
+    private EventLog(String name, Path dir, Snapshotter snapshotter, long snapshotEvery, boolean fsync) {
+        this.name = name;
+        this.dir = dir;
+        this.snapshotter = snapshotter;
+        this.snapshotEvery = snapshotEvery;
+        this.fsync = fsync;
+        this.writer = dir == null ? null : new Thread(this::writeLoop, "event-log-" + name);
+    }
+
+    /**
+     * Opens the named log under {@link #DATA_DIR}, replaying everything in it
+     * before returning. With persistence disabled, returns a log that keeps
+     * nothing and acknowledges every append at once.
+     */
+    public static EventLog open(String name, Replayer replayer, Snapshotter snapshotter) throws IOException {
+        return open(name, "", replayer, snapshotter);
+    }
+
+    /**
+     * As {@link #open(String, Replayer, Snapshotter)}, in a directory of its
+     * own per {@code instance} (typically the port), so several instances of
+     * a service can share a data directory.
+     */
+    public static EventLog open(String name, String instance, Replayer replayer, Snapshotter snapshotter)
+            throws IOException {
+        if (DATA_DIR.isEmpty()) {
+            return inMemory(name);
+        }
+        String dir = instance.isEmpty() ? name : name + "-" + instance;
+        return open(Path.of(DATA_DIR, dir), replayer, snapshotter, SNAPSHOT_EVERY, FSYNC);
+    }
+
+    /**
+     * Fails at once if another process, or another log in this one, already
+     * has {@code dir} open: two writers would interleave segments and each
+     * delete files the other still needs.
+     */
+    public static EventLog open(Path dir, Replayer replayer, Snapshotter snapshotter, long snapshotEvery,
+                                boolean fsync) throws IOException {
+        Files.createDirectories(dir);
+        EventLog log = new EventLog(dir.getFileName().toString(), dir, snapshotter, snapshotEvery, fsync);
+        log.lock();
+        try {
+            log.recover(replayer);
+        } catch (IOException | RuntimeException e) {
+            log.unlock();
+            throw e;
+        }
+        log.writer.setDaemon(true);
+        log.writer.start();
+        return log;
+    }
+
+    /** A log that keeps nothing, for state that need not survive a restart. */
+    public static EventLog inMemory(String name) {
+        return new EventLog(name, null, null, 0, false);
+    }
+
+    /**
+     * Queues the event; the future completes once it is durable, or fails if
+     * it could not be written or the log has been closed.
+     */
+    public CompletableFuture<Void> append(MessageLite event) {
+        if (writer == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (closed) {
+            return CompletableFuture.failedFuture(closedError());
+        }
+        Pending pending = new Pending(event.toByteArray(), new CompletableFuture<>());
+        queue.add(pending);
+        // Raced with close: whichever of this and the writer takes it back out answers it
+        if (closed && queue.remove(pending)) {
+            pending.done.completeExceptionally(closedError());
+        }
+        return pending.done;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new TreeMap<>();
+        stats.put("name", name);
+        stats.put("persistent", writer != null);
+        stats.put("appended", appended.get());
+        stats.put("syncs", syncs.get());
+        stats.put("snapshots", snapshots.get());
+        stats.put("recoveredEvents", recoveredEvents);
+        stats.put("recoveryMillis", recoveryMillis);
+        return stats;
+    }
+
+    /** Writes out everything appended so far and stops the writer. */
+    @Override
+    public void close() throws InterruptedException {
+        if (writer == null || closed) {
+            return;
+        }
+        closed = true;
+        queue.add(STOP);
+        writer.join();
+        unlock();
+    }
+
+    private void lock() throws IOException {
+        lockChannel = FileChannel.open(dir.resolve("LOCK"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Event log directory " + dir + " is in use by another process");
+        }
+    }
+
+    private void unlock() {
+        try {
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            System.err.println("Event log " + name + " unlock failed: " + e.getMessage());
+        }
+    }
+
+    private IOException closedError() {
+        return new IOException("Event log " + name + " is closed");
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            running = !batch.remove(STOP);
+            try {
+                write(batch);
+                for (Pending pending : batch) {
+                    pending.done.complete(null);
+                }
+                maybeSnapshot();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Event log " + name + " write failed: " + e.getMessage());
+                for (Pending pending : batch) {
+                    pending.done.completeExceptionally(e);
+                }
+                discardFailedWrite();
+            }
+            batch.clear();
+        }
+        // Appended after the stop, past the point the writer reads to
+        for (Pending pending; (pending = queue.poll()) != null; ) {
+            pending.done.completeExceptionally(closedError());
+        }
+        try {
+            segment.close();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Event log " + name + " close failed: " + e.getMessage());
+        }
+    }
+
+    // Cuts off whatever part of a failed batch reached the segment. Left in place, a torn frame
+    // would end the segment on recovery and take every later, acknowledged, event with it
+    private void discardFailedWrite() {
+        try {
+            segment.truncate(segmentBytes);
+            segment.position(segmentBytes);
+        } catch (IOException | RuntimeException e) {
+            // Recovery only stops at a torn frame within its segment, so a fresh one is as good
+            System.err.println("Event log " + name + " cannot truncate " + segmentSeq + ", rolling: " + e.getMessage());
+            try {
+                segment.close();
+            } catch (IOException | RuntimeException ignored) {
+                // Already failing; the new segment is what matters
+            }
+            segment = null;
+            try {
+                roll();
+            } catch (IOException rollFailure) {
+                System.err.println("Event log " + name + " roll failed: " + rollFailure.getMessage());
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int size = 0;
+        for (Pending pending : batch) {
+            size += HEADER_BYTES + pending.payload.length;
+        }
+        if (batchBuffer.capacity() < size) {
+            batchBuffer = ByteBuffer.allocateDirect(Integer.highestOneBit(size) << 1).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        ByteBuffer buffer = batchBuffer.clear();
+        CRC32C crc = new CRC32C();
+        for (Pending pending : batch) {
+            crc.reset();
+            crc.update(pending.payload);
+            buffer.putInt(pending.payload.length).putInt((int) crc.getValue()).put(pending.payload);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segment.write(buffer);
+        }
+        if (fsync) {
+            segment.force(false);
+        }
+        syncs.incrementAndGet();
+        segmentBytes += size;
+        sinceSnapshot += batch.size();
+        appended.addAndGet(batch.size());
+    }
+
+    private void maybeSnapshot() throws IOException {
+        boolean snapshotDue = sinceSnapshot >= snapshotEvery && snapshotter != null;
+        if (!snapshotDue && segmentBytes < MAX_SEGMENT_BYTES) {
+            return;
+        }
+        if (snapshotDue && !snapshotting.compareAndSet(false, true)) {
+            // The previous snapshot is still being written; try again after the next batch
+            return;
+        }
+        long covered = segmentSeq;
+        roll();
+        if (!snapshotDue) {
+            return;
+        }
+        sinceSnapshot = 0;
+        Thread.ofPlatform().daemon().name("event-log-" + name + "-snapshot").start(() -> {
+            try {
+                writeSnapshot(covered);
+                snapshots.incrementAndGet();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Event log " + name + " snapshot failed: " + e.getMessage());
+            } finally {
+                snapshotting.set(false);
+            }
+        });
+    }
+
+    private void roll() throws IOException {
+        if (segment != null && segment.isOpen()) {
+            segment.force(false);
+            segment.close();
+        }
+        segmentSeq++;
+        segment = FileChannel.open(file(segmentSeq, "log"),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentBytes = 0;
+    }
+
+    // Writes state to a temporary file, publishes it with an atomic rename, then drops what it covers
+    private void writeSnapshot(long covered) throws IOException {
+        Path target = file(covered, "snapshot");
+        Path temp = dir.resolve(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            CRC32C crc = new CRC32C();
+            snapshotter.snapshot(event -> {
+                byte[] payload = event.toByteArray();
+                if (buffer.remaining() < HEADER_BYTES + payload.length) {
+                    flush(out, buffer);
+                }
+                crc.reset();
+                crc.update(payload);
+                buffer.putInt(payload.length).putInt((int) crc.getValue());
+                if (payload.length > buffer.remaining()) {
+                    flush(out, buffer);
+                    writeFully(out, ByteBuffer.wrap(payload));
+                } else {
+                    buffer.put(payload);
+                }
+            });
+            flush(out, buffer);
+            out.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        deleteThrough(covered, target);
+    }
+
+    private static void flush(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        writeFully(out, buffer);
+        buffer.clear();
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private void recover(Replayer replayer) throws IOException {
+        long start = System.nanoTime();
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        TreeMap<Long, Path> snapshots = new TreeMap<>();
+        try (var files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher m = FILE_NAME.matcher(file.getFileName().toString());
+                if (m.matches()) {
+                    (m.group(2).equals("log") ? segments : snapshots).put(Long.parseLong(m.group(1)), file);
+                } else if (file.getFileName().toString().endsWith(".tmp")) {
+                    // A snapshot that never finished
+                    Files.delete(file);
+                }
+            }
+        }
+
+        long after = 0;
+        if (!snapshots.isEmpty()) {
+            after = snapshots.lastKey();
+            replayFile(snapshots.lastEntry().getValue(), replayer, false);
+            deleteThrough(after, snapshots.lastEntry().getValue());
+        }
+        for (Map.Entry<Long, Path> entry : segments.tailMap(after, false).entrySet()) {
+            replayFile(entry.getValue(), replayer, true);
+        }
+        // Never append to a recovered file: start a fresh segment after everything seen
+        long last = Math.max(after, segments.isEmpty() ? 0 : segments.lastKey());
+        segmentSeq = last;
+        roll();
+        recoveryMillis = (System.nanoTime() - start) / 1_000_000;
+        if (recoveredEvents > 0) {
+            System.out.println("Event log " + name + ": recovered " + recoveredEvents + " events in "
+                    + recoveryMillis + " ms");
+        }
+    }
+
+    private void replayFile(Path file, Replayer replayer, boolean truncateTornTail) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            CRC32C crc = new CRC32C();
+            long position = 0;
+            // Mapped a window at a time, since one mapping cannot exceed 2 GB
+            while (size - position >= HEADER_BYTES) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(size - position, MAP_WINDOW_BYTES));
+                window.order(ByteOrder.LITTLE_ENDIAN);
+                int offset = 0;
+                boolean torn = false;
+                while (window.limit() - offset >= HEADER_BYTES) {
+                    int length = window.getInt(offset);
+                    int checksum = window.getInt(offset + 4);
+                    if (length < 0 || length > size - position - offset - HEADER_BYTES) {
+                        torn = true;
+                        break;
+                    }
+                    if (length > window.limit() - offset - HEADER_BYTES) {
+                        // Runs past the window; map again starting at this record
+                        break;
+                    }
+                    ByteBuffer payload = window.slice(offset + HEADER_BYTES, length);
+                    crc.reset();
+                    crc.update(payload.duplicate());
+                    if ((int) crc.getValue() != checksum) {
+                        torn = true;
+                        break;
+                    }
+                    replayer.replay(payload);
+                    recoveredEvents++;
+                    offset += HEADER_BYTES + length;
+                }
+                position += offset;
+                if (torn || offset == 0) {
+                    break;
+                }
+            }
+            if (position < size) {
+                System.err.println("Event log " + name + ": " + file.getFileName() + " ends in "
+                        + (size - position) + " unreadable bytes" + (truncateTornTail ? ", truncating" : ""));
+                if (truncateTornTail) {
+                    channel.truncate(position);
+                }
+            }
+        }
+    }
+
+    // Deletes segments and snapshots up to and including seq, except keep
+    private void deleteThrough(long seq, Path keep) throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher m = FILE_NAME.matcher(file.getFileName().toString());
+                if (m.matches() && Long.parseLong(m.group(1)) <= seq && !file.equals(keep)) {
+                    Files.delete(file);
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Path file(long seq, String kind) {
+        return dir.resolve(String.format("%012d.%s", seq, kind));
+    }
+}
@@ -70,6 +70,7 @@ async function createJob() {
     title: document.getElementById("job-title").value,
     company: document.getElementById("job-company").value,
     description: document.getElementById("job-desc").value,
+    skills: parseSkills(document.getElementById("job-skills").value),
   };
   await fetch("/jobs", {
     method: "POST",
@@ -81,17 +82,42 @@ async function createJob() {
   loadJobs();
 }
 
+// "java:3, grpc:2, kubernetes" -> [{keyword, weight}], weight defaulting to 1
+function parseSkills(text) {
+  return text.split(",").map(s => s.trim()).filter(s => s).map(s => {
+    const i = s.lastIndexOf(":");
+    const weight = i > 0 ? parseInt(s.slice(i + 1)) : NaN;
+    return isNaN(weight) ? { keyword: s, weight: 1 } : { keyword: s.slice(0, i).trim(), weight };
+  });
+}
+
 async function loadJobs() {
   const res = await fetch("/jobs");
   const jobs = await res.json();
-  const table = document.getElementById("job-table");
+  renderJobs(jobs);
   const select = document.getElementById("job-select");
-  table.innerHTML = "<thead><tr><th>ID</th><th>Title</th><th>Company</th></tr></thead><tbody>";
   select.innerHTML = "";
   jobs.forEach((job) => {
-    table.innerHTML += `<tr><td>${job.id}</td><td>${job.title}</td><td>${job.company}</td></tr>`;
     select.innerHTML += `<option value="${job.id}">${job.title} @ ${job.company}</option>`;
   });
+}
+
+async function searchJobs() {
+  const q = document.getElementById("job-search").value;
+  if (!q.trim()) {
+    return loadJobs();
+  }
+  const res = await fetch("/jobs/search?q=" + encodeURIComponent(q));
+  const hits = await res.json();
+  renderJobs(hits.map((hit) => hit.job));
+}
+
+function renderJobs(jobs) {
+  const table = document.getElementById("job-table");
+  table.innerHTML = "<thead><tr><th>ID</th><th>Title</th><th>Company</th></tr></thead><tbody>";
+  jobs.forEach((job) => {
+    table.innerHTML += `<tr><td>${job.id}</td><td>${job.title}</td><td>${job.company}</td></tr>`;
+  });
   table.innerHTML += "</tbody>";
 }
 
@@ -111,9 +137,23 @@ async function apply() {
   document.getElementById("apply-message").textContent = result.message;
   appendToConsole("[Apply Submitted] " + app.candidateName);
   loadApplications();
+  if (result.success) watchApplication(result.applicationId);
   startResumeStream();
 }
 
+function watchApplication(applicationId) {
+  const events = new EventSource("/applications/" + applicationId + "/events");
+  events.addEventListener("application", (msg) => {
+    const application = JSON.parse(msg.data);
+    appendToConsole("[Application " + applicationId + "] " + application.status);
+    if (application.status !== "PENDING") {
+      events.close();
+      loadApplications();
+    }
+  });
+  events.onerror = () => events.close();
+}
+
 async function loadSlots() {
   const res = await fetch("/slots");
   const slots = await res.json();
@@ -0,0 +1,91 @@
+package org.example.recruitment.interview;
+
+import interview.InterviewServiceOuterClass.InterviewRequest;
+import interview.InterviewServiceOuterClass.Interviewer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterviewerCalendarTest {
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    private final SlotBookingEngine engine = new SlotBookingEngine();
+    private final InterviewerCalendar calendar = new InterviewerCalendar(Interviewer.newBuilder()
+            .setInterviewerId("alice")
+            .setZoneId("UTC")
+            .setDayStartMinute(9 * 60)
+            .setDayEndMinute(12 * 60)
+            .setSlotMinutes(60)
+            .setIncludeWeekends(true)
+            .build(), 0);
+
+    @Test
+    void materializesEachDayOnce() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        calendar.materialize(today, engine);
+        calendar.materialize(today, engine);
+        assertEquals(3, calendar.freeSlots.size());
+        assertEquals(3, engine.freeBetween(midnight(today), midnight(today) + MINUTES_PER_DAY).size());
+    }
+
+    @Test
+    void dropsPastDaysWhenANewDayIsMaterialized() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate yesterday = today.minusDays(1);
+        calendar.materialize(yesterday, engine);
+        calendar.materialize(today, engine);
+
+        assertTrue(calendar.freeSlots.headMap(midnight(today)).isEmpty());
+        assertTrue(engine.freeBetween(midnight(yesterday), midnight(today)).isEmpty());
+        assertEquals(3, engine.freeBetween(midnight(today), midnight(today) + MINUTES_PER_DAY).size());
+        // Gone from the slot index too, so it can no longer be booked
+        long key = SlotBookingEngine.key(midnight(yesterday) + 9 * 60, calendar.index);
+        assertFalse(engine.book(key, InterviewRequest.getDefaultInstance()).join().getSuccess());
+    }
+
+    @Test
+    void slotsFollowTheWallClockAcrossDaylightSavingChanges() {
+        ZoneId zone = ZoneId.of("America/New_York");
+        InterviewerCalendar newYork = new InterviewerCalendar(Interviewer.newBuilder()
+                .setInterviewerId("bob")
+                .setZoneId(zone.getId())
+                .setDayStartMinute(9 * 60)
+                .setDayEndMinute(12 * 60)
+                .setSlotMinutes(60)
+                .setIncludeWeekends(true)
+                .build(), 1);
+        // The next two changes, one forward and one back, both still ahead so neither is pruned
+        ZoneOffsetTransition first = zone.getRules().nextTransition(Instant.now());
+        ZoneOffsetTransition second = zone.getRules().nextTransition(first.getInstant());
+
+        for (ZoneOffsetTransition transition : List.of(first, second)) {
+            LocalDate day = transition.getInstant().atZone(zone).toLocalDate();
+            newYork.materialize(day, engine);
+            long from = day.atStartOfDay(zone).toEpochSecond() / 60;
+            long to = day.plusDays(1).atStartOfDay(zone).toEpochSecond() / 60;
+
+            List<String> times = new ArrayList<>();
+            for (long minute : newYork.freeSlots.subMap(from, to).keySet()) {
+                times.add(newYork.format(minute));
+                assertTrue(newYork.isSlotStart(minute));
+            }
+            assertEquals(List.of(day + " 09:00", day + " 10:00", day + " 11:00"), times);
+            long last = newYork.freeSlots.subMap(from, to).lastKey();
+            assertTrue(engine.book(SlotBookingEngine.key(last, newYork.index), InterviewRequest.getDefaultInstance())
+                    .join().getSuccess());
+        }
+    }
+
+    private static long midnight(LocalDate day) {
+        return day.toEpochDay() * MINUTES_PER_DAY;
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.recruitment.interview;
+
+import interview.InterviewServiceOuterClass.InterviewRequest;
+import interview.InterviewServiceOuterClass.InterviewResponse;
+import interview.InterviewServiceOuterClass.Interviewer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotBookingEngineTest {
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+    private static final long TODAY = LocalDate.now(ZoneOffset.UTC).toEpochDay() * MINUTES_PER_DAY;
+
+    private final ExecutorService bookers = Executors.newFixedThreadPool(2);
+    private SlotBookingEngine engine;
+    private InterviewerCalendar calendar;
+
+    @BeforeEach
+    void start() {
+        engine = new SlotBookingEngine();
+        // 9:00, 10:00 and 11:00 today
+        calendar = new InterviewerCalendar(Interviewer.newBuilder()
+                .setInterviewerId("alice")
+                .setZoneId("UTC")
+                .setDayStartMinute(9 * 60)
+                .setDayEndMinute(12 * 60)
+                .setSlotMinutes(60)
+                .setIncludeWeekends(true)
+                .build(), 0);
+        calendar.materialize(LocalDate.now(ZoneOffset.UTC), engine);
+    }
+
+    @AfterEach
+    void stop() {
+        bookers.shutdownNow();
+    }
+
+    @Test
+    void slotIsBookedOnce() {
+        assertTrue(engine.book(key(9), request("a")).join().getSuccess());
+        assertFalse(engine.book(key(9), request("b")).join().getSuccess());
+
+        assertEquals(2, free());
+        assertEquals(1, engine.scheduledInterviews().size());
+        assertEquals("a@example.com", engine.scheduledInterviews().iterator().next().getCandidateEmail());
+    }
+
+    @Test
+    void unknownSlotIsUnavailable() {
+        assertFalse(engine.book(key(13), request("a")).join().getSuccess());
+        assertTrue(engine.scheduledInterviews().isEmpty());
+    }
+
+    @Test
+    void exactlyOneOfTwoConcurrentBookersWins() throws Exception {
+        for (int round = 0; round < 500; round++) {
+            start();
+            long key = key(9 + round % 3);
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            Future<InterviewResponse> first = bookers.submit(() -> {
+                barrier.await();
+                return engine.book(key, request("a")).join();
+            });
+            Future<InterviewResponse> second = bookers.submit(() -> {
+                barrier.await();
+                return engine.book(key, request("b")).join();
+            });
+
+            assertNotEquals(first.get().getSuccess(), second.get().getSuccess(), "round " + round);
+            assertEquals(1, engine.scheduledInterviews().size());
+            assertEquals(2, free());
+        }
+    }
+
+    @Test
+    void batchBooksEverySlot() {
+        List<InterviewResponse> results = engine.bookAll(new long[]{key(9), key(10)},
+                List.of(request("a"), request("a"))).join();
+
+        assertTrue(results.stream().allMatch(InterviewResponse::getSuccess));
+        assertEquals(1, free());
+        assertEquals(2, engine.scheduledInterviews().size());
+    }
+
+    @Test
+    void batchReleasesItsSlotsWhenOneIsTaken() {
+        assertTrue(engine.book(key(11), request("b")).join().getSuccess());
+
+        List<InterviewResponse> results = engine.bookAll(new long[]{key(9), key(10), key(11)},
+                List.of(request("a"), request("a"), request("a"))).join();
+
+        assertTrue(results.stream().noneMatch(InterviewResponse::getSuccess));
+        assertEquals(SlotBookingEngine.unavailable(), results.get(2));
+        assertEquals(2, free());
+        assertEquals(2, calendar.freeSlots.size());
+        assertEquals(1, engine.scheduledInterviews().size());
+        // Released for real: an ordinary booking takes them again
+        assertTrue(engine.book(key(9), request("c")).join().getSuccess());
+    }
+
+    @Test
+    void batchRejectsTheSameSlotTwice() {
+        List<InterviewResponse> results = engine.bookAll(new long[]{key(9), key(9)},
+                List.of(request("a"), request("b"))).join();
+
+        assertTrue(results.stream().noneMatch(InterviewResponse::getSuccess));
+        assertEquals(3, free());
+        assertTrue(engine.scheduledInterviews().isEmpty());
+    }
+
+    @Test
+    void allKeepsTheOrderOfItsResults() {
+        CompletableFuture<InterviewResponse> late = new CompletableFuture<>();
+        CompletableFuture<List<InterviewResponse>> all = SlotBookingEngine.all(
+                List.of(late, CompletableFuture.completedFuture(SlotBookingEngine.unavailable())));
+        assertFalse(all.isDone());
+
+        InterviewResponse booked = InterviewResponse.newBuilder().setSuccess(true).build();
+        late.complete(booked);
+        assertEquals(List.of(booked, SlotBookingEngine.unavailable()), all.join());
+    }
+
+    private int free() {
+        return engine.freeBetween(TODAY, TODAY + MINUTES_PER_DAY).size();
+    }
+
+    private long key(int hour) {
+        return SlotBookingEngine.key(TODAY + hour * 60, calendar.index);
+    }
+
+    private static InterviewRequest request(String candidate) {
+        return InterviewRequest.newBuilder()
+                .setCandidateName(candidate)
+                .setCandidateEmail(candidate + "@example.com")
+                .setJobId(1)
+                .build();
+    }
+}
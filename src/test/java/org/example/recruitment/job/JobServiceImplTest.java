@@ -0,0 +1,149 @@
+package org.example.recruitment.job;
+
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import job.JobServiceOuterClass.ApplicationFilter;
+import job.JobServiceOuterClass.ApplicationList;
+import job.JobServiceOuterClass.ApplicationRequest;
+import job.JobServiceOuterClass.ApplicationResponse;
+import job.JobServiceOuterClass.Job;
+import job.JobServiceOuterClass.JobResponse;
+import job.JobServiceOuterClass.Skill;
+import org.example.recruitment.registry.ChannelManager;
+import org.example.recruitment.registry.DiscoveryCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobServiceImplTest {
+
+    private FailingJournal journal;
+    private JobServiceImpl service;
+    private int jobId;
+
+    @BeforeEach
+    void start() {
+        // Never asked: screening of these applications just fails in the background
+        DiscoveryCache discovery = new DiscoveryCache(InProcessChannelBuilder.forName("registry").build(),
+                Duration.ofMinutes(1));
+        service = new JobServiceImpl(new ChannelManager(discovery), store -> journal = new FailingJournal(store));
+        Reply<JobResponse> reply = new Reply<>();
+        service.createJob(Job.newBuilder()
+                .setTitle("Backend engineer")
+                .setCompany("Acme")
+                .addSkills(Skill.newBuilder().setKeyword("java").setWeight(1))
+                .build(), reply);
+        jobId = reply.get().getJobId();
+    }
+
+    @Test
+    void retryWithKeyAfterJournalFailureSubmitsAfresh() {
+        retryAfterJournalFailure("key-1");
+    }
+
+    @Test
+    void retryWithoutKeyAfterJournalFailureSubmitsAfresh() {
+        retryAfterJournalFailure("");
+    }
+
+    private void retryAfterJournalFailure(String idempotencyKey) {
+        journal.failNext = true;
+        Reply<ApplicationResponse> failed = apply(idempotencyKey);
+        assertEquals(Status.Code.UNAVAILABLE, Status.fromThrowable(failed.error).getCode());
+
+        ApplicationResponse retried = apply(idempotencyKey).get();
+        assertTrue(retried.getSuccess());
+        assertFalse(retried.getDuplicate(), "the failed attempt must not count as submitted");
+
+        ApplicationResponse again = apply(idempotencyKey).get();
+        assertTrue(again.getDuplicate());
+        assertEquals(retried.getApplicationId(), again.getApplicationId());
+
+        ApplicationList listed = list();
+        assertEquals(1, listed.getApplicationsCount());
+        assertEquals(retried.getApplicationId(), listed.getApplications(0).getApplicationId());
+    }
+
+    @Test
+    void identicalRequestIsAnsweredWithTheOriginal() {
+        ApplicationResponse first = apply("key-2").get();
+        ApplicationResponse second = apply("key-2").get();
+        assertFalse(first.getDuplicate());
+        assertTrue(second.getDuplicate());
+        assertEquals(first.getApplicationId(), second.getApplicationId());
+        assertEquals(1, list().getApplicationsCount());
+    }
+
+    @Test
+    void duplicateTakesNoApplicationId() {
+        ApplicationResponse first = apply("key-3").get();
+        assertTrue(apply("key-3").get().getDuplicate());
+        assertTrue(apply("").get().getDuplicate());
+
+        ApplicationResponse next = apply("", "other@example.com").get();
+        assertFalse(next.getDuplicate());
+        assertEquals(first.getApplicationId() + 1, next.getApplicationId());
+    }
+
+    private Reply<ApplicationResponse> apply(String idempotencyKey) {
+        return apply(idempotencyKey, "candidate@example.com");
+    }
+
+    private Reply<ApplicationResponse> apply(String idempotencyKey, String email) {
+        Reply<ApplicationResponse> reply = new Reply<>();
+        service.applyForJob(ApplicationRequest.newBuilder()
+                .setJobId(jobId)
+                .setCandidateName("Candidate")
+                .setCandidateEmail(email)
+                .setResumeText("Java engineer")
+                .setIdempotencyKey(idempotencyKey)
+                .build(), reply);
+        return reply;
+    }
+
+    private ApplicationList list() {
+        Reply<ApplicationList> reply = new Reply<>();
+        service.listApplications(ApplicationFilter.newBuilder().setJobId(jobId).build(), reply);
+        return reply.get();
+    }
+
+    // Fails the next application write, as a full disk would
+    private static final class FailingJournal extends JobJournal {
+        volatile boolean failNext;
+
+        FailingJournal(JobStore store) throws IOException {
+            super(store, "");
+        }
+
+        @Override
+        CompletableFuture<Void> applicationSubmitted(ApplicationRecord record) {
+            if (failNext) {
+                failNext = false;
+                return CompletableFuture.failedFuture(new IOException("No space left on device"));
+            }
+            return super.applicationSubmitted(record);
+        }
+    }
+
+    // Without persistence every reply is sent before the call returns
+    private static final class Reply<T> implements StreamObserver<T> {
+        T value;
+        Throwable error;
+
+        T get() {
+            assertNull(error);
+            assertNotNull(value, "No reply was sent");
+            return value;
+        }
+
+        @Override public void onNext(T value) { this.value = value; }
+        @Override public void onError(Throwable t) { this.error = t; }
+        @Override public void onCompleted() { }
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.recruitment.job;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobStoreTest {
+
+    private static final int JOB = 1;
+    private static final String EMAIL = "candidate@example.com";
+
+    private final JobStore store = new JobStore();
+
+    @Test
+    void sameResumeIsADuplicateOfTheLatestApplication() {
+        ApplicationRecord first = submit(1, "");
+
+        assertSame(first, store.duplicateOf(JOB, "Candidate@Example.com", 1, ""));
+        assertNull(store.duplicateOf(JOB, EMAIL, 2, ""));
+        assertNull(store.duplicateOf(JOB + 1, EMAIL, 1, ""));
+    }
+
+    @Test
+    void changedResumeBecomesTheLatest() {
+        submit(1, "");
+        ApplicationRecord second = submit(2, "");
+
+        assertNull(store.duplicateOf(JOB, EMAIL, 1, ""));
+        assertSame(second, store.duplicateOf(JOB, EMAIL, 2, ""));
+    }
+
+    @Test
+    void concurrentIdenticalClaimGetsTheFirstRecord() {
+        ApplicationRecord first = submit(1, "");
+        assertSame(first, store.claim(record(1, "")));
+    }
+
+    @Test
+    void idempotencyKeyWinsOverTheResume() {
+        ApplicationRecord keyed = submit(1, "key");
+
+        assertSame(keyed, store.duplicateOf(JOB, EMAIL, 2, "key"));
+        assertSame(keyed, store.claim(record(2, "key")));
+        // Claiming nothing: the changed resume did not become the latest either
+        assertSame(keyed, store.duplicateOf(JOB, EMAIL, 1, ""));
+    }
+
+    @Test
+    void releaseRestoresTheApplicationItDisplaced() {
+        ApplicationRecord first = submit(1, "");
+        ApplicationRecord unlogged = record(2, "key");
+        assertNull(store.claim(unlogged));
+
+        store.release(unlogged);
+
+        assertSame(first, store.duplicateOf(JOB, EMAIL, 1, ""));
+        assertNull(store.duplicateOf(JOB, EMAIL, 2, "key"));
+        assertNull(store.claim(record(2, "key")), "the key is free to claim again");
+    }
+
+    @Test
+    void releaseAfterRemovalSkipsTheRemovedRecord() {
+        ApplicationRecord first = submit(1, "");
+        ApplicationRecord withdrawn = submit(2, "key");
+
+        store.removeApplication(withdrawn);
+        store.release(withdrawn);
+
+        assertSame(first, store.duplicateOf(JOB, EMAIL, 1, ""));
+        assertNull(store.duplicateOf(JOB, EMAIL, 2, "key"));
+        assertNull(store.application(withdrawn.applicationId));
+        assertEquals(1, store.applications().size());
+    }
+
+    @Test
+    void releaseOfTheOnlyApplicationLeavesNoneLatest() {
+        ApplicationRecord only = record(1, "");
+        assertNull(store.claim(only));
+
+        store.release(only);
+
+        assertNull(store.duplicateOf(JOB, EMAIL, 1, ""));
+        assertNull(store.claim(record(1, "")));
+    }
+
+    @Test
+    void releaseLeavesANewerClaimAlone() {
+        ApplicationRecord first = record(1, "");
+        assertNull(store.claim(first));
+        ApplicationRecord second = submit(2, "");
+
+        store.release(first);
+
+        assertSame(second, store.duplicateOf(JOB, EMAIL, 2, ""));
+    }
+
+    // Claimed and added, as an application that was logged
+    private ApplicationRecord submit(long resumeHash, String idempotencyKey) {
+        ApplicationRecord record = record(resumeHash, idempotencyKey);
+        assertNull(store.claim(record));
+        store.addApplication(record);
+        return record;
+    }
+
+    private ApplicationRecord record(long resumeHash, String idempotencyKey) {
+        return new ApplicationRecord(store.nextApplicationId(), JOB, "Candidate", EMAIL, 0, resumeHash,
+                idempotencyKey, (record, from, to) -> {
+                });
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.recruitment.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    private static final long MAX_MICROS = (1L << 36) - 1;
+    private static final double ERROR = 1.0 / 32;
+
+    @Test
+    void everyValueFallsInsideItsBucket() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (long micros = 0; micros < 1 << 16; micros++) {
+            assertInBucket(micros);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertInBucket(random.nextLong(MAX_MICROS + 1));
+        }
+        assertInBucket(MAX_MICROS);
+    }
+
+    @Test
+    void bucketsAreExactBelow32AndWithin3PercentAbove() {
+        for (int index = 0; index < 32; index++) {
+            assertEquals(index, LatencyHistogram.lowest(index));
+            assertEquals(1, LatencyHistogram.lowest(index + 1) - LatencyHistogram.lowest(index));
+        }
+        for (int index = 32; index <= LatencyHistogram.index(MAX_MICROS); index++) {
+            long lowest = LatencyHistogram.lowest(index);
+            long width = LatencyHistogram.lowest(index + 1) - lowest;
+            assertTrue(width <= lowest * ERROR, "bucket " + index + " is " + width + " wide at " + lowest);
+        }
+        assertEquals(1023, LatencyHistogram.index(MAX_MICROS));
+    }
+
+    @Test
+    void quantilesAreWithin3PercentOfTheExactValue() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1 µs to 100 ms, each once
+        for (long micros = 1; micros <= 100_000; micros++) {
+            histogram.record(micros * 1000);
+        }
+        for (double quantile : new double[]{0.5, 0.9, 0.99, 0.999, 1.0}) {
+            long exact = (long) Math.ceil(quantile * 100_000);
+            long reported = histogram.quantileMicros(quantile);
+            assertTrue(reported >= exact && reported <= exact * (1 + ERROR),
+                    "p" + quantile + " reported " + reported + " for " + exact);
+        }
+        assertEquals(1, histogram.quantileMicros(0));
+    }
+
+    @Test
+    void skewedQuantilesFindTheTail() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 990; i++) {
+            histogram.record(2_000_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1_000_000_000);
+        }
+        assertEquals(2_000, histogram.quantileMicros(0.99), 2_000 * ERROR);
+        assertEquals(1_000_000, histogram.quantileMicros(0.999), 1_000_000 * ERROR);
+    }
+
+    @Test
+    void countsAtOrBelowABucketBound() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100_000);
+        histogram.record(200_000);
+        histogram.record(300_000);
+
+        assertEquals(0, histogram.countAtOrBelow(99));
+        assertEquals(1, histogram.countAtOrBelow(199));
+        assertEquals(2, histogram.countAtOrBelow(200));
+        assertEquals(3, histogram.countAtOrBelow(1_000_000));
+    }
+
+    @Test
+    void keepsCountAndSumExactly() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.quantileMicros(0.5));
+        histogram.record(1_500_000);
+        histogram.record(1_500_500);
+
+        assertEquals(2, histogram.count());
+        assertEquals(0.0030005, histogram.sumSeconds(), 1e-12);
+    }
+
+    @Test
+    void clampsValuesOutOfRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE / 2);
+
+        assertEquals(0, histogram.quantileMicros(0.5));
+        assertEquals(MAX_MICROS, histogram.quantileMicros(1.0));
+        assertEquals(2, histogram.countAtOrBelow(MAX_MICROS));
+    }
+
+    private static void assertInBucket(long micros) {
+        int index = LatencyHistogram.index(micros);
+        assertTrue(LatencyHistogram.lowest(index) <= micros && micros < LatencyHistogram.lowest(index + 1),
+                micros + " is outside bucket " + index);
+    }
+}
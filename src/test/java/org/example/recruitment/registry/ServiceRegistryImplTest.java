@@ -0,0 +1,155 @@
+package org.example.recruitment.registry;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import registry.ServiceRegistryGrpc;
+import registry.ServiceRegistryOuterClass.RegistryEvent;
+import registry.ServiceRegistryOuterClass.ServiceInfo;
+import registry.ServiceRegistryOuterClass.ServiceQuery;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceRegistryImplTest {
+
+    private Server server;
+    private ManagedChannel channel;
+    private ServiceRegistryGrpc.ServiceRegistryBlockingStub registry;
+
+    private void start(long leaseMillis) throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new ServiceRegistryImpl(leaseMillis))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        registry = ServiceRegistryGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void stop() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void leaseExpiresWithoutHeartbeats() throws Exception {
+        start(200);
+        Events events = watch("JobService");
+        assertEquals(200, registry.register(instance("JobService", 9001)).getLeaseMillis());
+        long registered = System.nanoTime();
+        assertEquals(RegistryEvent.Type.REGISTERED, events.next().getType());
+
+        RegistryEvent expired = events.next();
+
+        assertEquals(RegistryEvent.Type.DEREGISTERED, expired.getType());
+        assertEquals("localhost:9001", expired.getService().getInstanceId());
+        assertTrue(System.nanoTime() - registered >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(0, instances("JobService").size());
+    }
+
+    @Test
+    void heartbeatsKeepTheLease() throws Exception {
+        start(200);
+        registry.register(instance("JobService", 9001));
+        for (int i = 0; i < 10; i++) {
+            Thread.sleep(60);
+            assertTrue(registry.heartbeat(instance("JobService", 9001)).getSuccess());
+        }
+        assertEquals(1, instances("JobService").size());
+    }
+
+    @Test
+    void heartbeatAfterExpiryRegistersAgain() throws Exception {
+        start(200);
+        Events events = watch("");
+        registry.register(instance("JobService", 9001));
+        events.next();
+        assertEquals(RegistryEvent.Type.DEREGISTERED, events.next().getType());
+
+        registry.heartbeat(instance("JobService", 9001));
+
+        assertEquals(RegistryEvent.Type.REGISTERED, events.next().getType());
+        assertEquals(1, instances("JobService").size());
+    }
+
+    @Test
+    void watchReplaysTheCurrentViewThenStreamsChanges() throws Exception {
+        start(ServiceRegistryImpl.DEFAULT_LEASE_MILLIS);
+        registry.register(instance("JobService", 9001));
+        registry.register(instance("JobService", 9011));
+        registry.register(instance("InterviewService", 9003));
+
+        Events events = watch("JobService");
+        assertEquals(Set.of("localhost:9001", "localhost:9011"),
+                Set.of(events.next().getService().getInstanceId(), events.next().getService().getInstanceId()));
+
+        registry.register(instance("InterviewService", 9013));
+        registry.register(instance("JobService", 9021));
+        registry.deregister(instance("JobService", 9001));
+
+        RegistryEvent registered = events.next();
+        assertEquals(RegistryEvent.Type.REGISTERED, registered.getType());
+        assertEquals("localhost:9021", registered.getService().getInstanceId());
+        RegistryEvent deregistered = events.next();
+        assertEquals(RegistryEvent.Type.DEREGISTERED, deregistered.getType());
+        assertEquals("localhost:9001", deregistered.getService().getInstanceId());
+        assertNull(events.poll(100), "events for other services must not be sent");
+    }
+
+    @Test
+    void watchOfEveryServiceReplaysThemAll() throws Exception {
+        start(ServiceRegistryImpl.DEFAULT_LEASE_MILLIS);
+        registry.register(instance("JobService", 9001));
+        registry.register(instance("InterviewService", 9003));
+
+        Events events = watch("");
+
+        assertEquals(Set.of("JobService", "InterviewService"),
+                Set.of(events.next().getService().getName(), events.next().getService().getName()));
+    }
+
+    private Events watch(String service) {
+        Events events = new Events();
+        ServiceRegistryGrpc.newStub(channel).watch(ServiceQuery.newBuilder().setName(service).build(), events);
+        return events;
+    }
+
+    private List<ServiceInfo> instances(String service) {
+        return registry.discoverAll(ServiceQuery.newBuilder().setName(service).build()).getInstancesList();
+    }
+
+    private static ServiceInfo instance(String service, int port) {
+        return ServiceInfo.newBuilder().setName(service).setHost("localhost").setPort(port).build();
+    }
+
+    private static final class Events implements StreamObserver<RegistryEvent> {
+        private final BlockingQueue<RegistryEvent> received = new LinkedBlockingQueue<>();
+
+        RegistryEvent next() throws InterruptedException {
+            RegistryEvent event = poll(2_000);
+            assertNotNull(event, "no event within 2 s");
+            return event;
+        }
+
+        RegistryEvent poll(long millis) throws InterruptedException {
+            return received.poll(millis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override public void onNext(RegistryEvent event) { received.add(event); }
+        @Override public void onError(Throwable t) { }
+        @Override public void onCompleted() { }
+    }
+}
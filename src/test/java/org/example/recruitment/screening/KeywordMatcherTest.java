@@ -0,0 +1,73 @@
+package org.example.recruitment.screening;
+
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.Test;
+import screening.CandidateScreeningServiceOuterClass.Skill;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeywordMatcherTest {
+
+    private static final KeywordMatcher MATCHER = KeywordMatcher.compile(List.of(
+            skill("Java", 3),
+            skill("JavaScript", 1),
+            skill("machine learning", 2),
+            skill("learning", 1),
+            skill("C++", 1),
+            skill("Node.js", 2)));
+
+    @Test
+    void matchesWholeWordsAfterNormalizing() {
+        assertEquals(List.of("Java", "C++", "Node.js"), matched("Wrote JAVA, c++ and node.js services"));
+        assertEquals(List.of("JavaScript"), matched("javascript only"));
+    }
+
+    @Test
+    void reportsOverlappingKeywordsThroughFailureLinks() {
+        assertEquals(List.of("machine learning", "learning"), matched("Applied machine learning"));
+    }
+
+    @Test
+    void multiWordKeywordMatchesAcrossAChunkBoundary() {
+        assertEquals(List.of("machine learning", "learning"), matched("Five years of machine", "learning at scale"));
+        // Trailing and leading whitespace around the boundary collapse into the one space
+        assertEquals(List.of("machine learning", "learning"), matched("machine  \t", "  learning"));
+    }
+
+    @Test
+    void chunkBoundaryEndsAWord() {
+        assertEquals(List.of(), matched("I know ja", "va well"));
+        assertEquals(List.of("Java"), matched("I know", "java", "well"));
+    }
+
+    @Test
+    void keywordAtTheVeryEndStillMatches() {
+        assertEquals(List.of("Java"), matched("Languages:", "java"));
+    }
+
+    @Test
+    void scoresTheMatchedShareOfTheWeight() {
+        KeywordMatcher.Scan scan = MATCHER.scan();
+        scan.accept(ByteString.copyFromUtf8("java and node.js"));
+        // (3 + 2) of 10
+        assertEquals(50, scan.score());
+    }
+
+    @Test
+    void emptyWithoutUsableKeywords() {
+        assertTrue(KeywordMatcher.compile(List.of(skill("  ", 1), skill("!!", 1))).isEmpty());
+    }
+
+    private static List<String> matched(String... chunks) {
+        KeywordMatcher.Scan scan = MATCHER.scan();
+        Arrays.stream(chunks).map(ByteString::copyFromUtf8).forEach(scan::accept);
+        return scan.matchedKeywords();
+    }
+
+    private static Skill skill(String keyword, int weight) {
+        return Skill.newBuilder().setKeyword(keyword).setWeight(weight).build();
+    }
+}
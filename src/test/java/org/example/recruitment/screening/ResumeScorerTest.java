@@ -0,0 +1,30 @@
+package org.example.recruitment.screening;
+
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResumeScorerTest {
+
+    @Test
+    void countsWordsAcrossChunks() {
+        assertEquals(5, score("Java engineer,", "  five years\tof", ""));
+        assertEquals(100, score("word ".repeat(150)));
+    }
+
+    @Test
+    void blankResumeScoresOneAsTheSplitDid() {
+        assertEquals(1, score(" \n\t "));
+        assertEquals(1, score("", "  "));
+        assertEquals(1, new ResumeScorer().score());
+    }
+
+    private static int score(String... chunks) {
+        ResumeScorer scorer = new ResumeScorer();
+        for (String chunk : chunks) {
+            scorer.accept(ByteString.copyFromUtf8(chunk));
+        }
+        return scorer.score();
+    }
+}
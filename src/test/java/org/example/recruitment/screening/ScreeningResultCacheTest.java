@@ -0,0 +1,135 @@
+package org.example.recruitment.screening;
+
+import org.junit.jupiter.api.Test;
+import screening.CandidateScreeningServiceOuterClass.CacheStats;
+import screening.CandidateScreeningServiceOuterClass.ScreeningResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScreeningResultCacheTest {
+
+    private final List<ScreeningResult> written = new ArrayList<>();
+
+    @Test
+    void evictsTheOldestEntryNotReadSince() {
+        ScreeningResultCache cache = cache(3, 1, TimeUnit.HOURS);
+        cache.put(result("a", 1));
+        cache.put(result("b", 1));
+        cache.put(result("c", 1));
+        assertNotNull(cache.get("a"));
+
+        cache.put(result("d", 1));
+
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertNotNull(cache.get("d"));
+        assertEquals(1, cache.stats().getEvictions());
+        assertEquals(3, cache.stats().getSize());
+    }
+
+    @Test
+    void replacingAnEntryCountsAsAUse() {
+        ScreeningResultCache cache = cache(2, 1, TimeUnit.HOURS);
+        cache.put(result("a", 1));
+        cache.put(result("b", 1));
+        cache.put(result("a", 2));
+
+        cache.put(result("c", 1));
+
+        assertEquals(2, cache.get("a").getScore());
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    void newEntrySurvivesWhenEveryOtherWasRead() {
+        ScreeningResultCache cache = cache(2, 1, TimeUnit.HOURS);
+        cache.put(result("a", 1));
+        cache.put(result("b", 1));
+        cache.get("a");
+        cache.get("b");
+
+        cache.put(result("c", 1));
+
+        // A full lap clears both bits, then the oldest goes
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    void expiredEntriesAreMissesAndGoFirst() throws InterruptedException {
+        ScreeningResultCache cache = cache(2, 20, TimeUnit.MILLISECONDS);
+        cache.put(result("a", 1));
+        cache.put(result("b", 1));
+        assertNotNull(cache.get("a"));
+        Thread.sleep(50);
+
+        assertNull(cache.get("a"));
+        assertTrue(cache.results().isEmpty());
+        cache.put(result("c", 1));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.getExpirations());
+        assertEquals(0, stats.getEvictions());
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(List.of(result("c", 1)), cache.results().stream().map(ScreeningResultCache.Stored::result).toList());
+    }
+
+    @Test
+    void writesEveryPutThroughButNoRestore() {
+        ScreeningResultCache cache = cache(1, 1, TimeUnit.HOURS);
+        cache.restore(new ScreeningResultCache.Stored(result("a", 1), System.currentTimeMillis()));
+        cache.put(result("b", 1));
+        cache.put(result("b", 2));
+
+        assertEquals(List.of(result("b", 1), result("b", 2)), written);
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void restoredResultOnlyLivesOutTheRestOfItsTtl() throws InterruptedException {
+        ScreeningResultCache cache = cache(10, 1, TimeUnit.HOURS);
+        long now = System.currentTimeMillis();
+        cache.restore(new ScreeningResultCache.Stored(result("old", 1), now - TimeUnit.MINUTES.toMillis(61)));
+        cache.restore(new ScreeningResultCache.Stored(result("aging", 1), now - TimeUnit.HOURS.toMillis(1) + 500));
+        cache.restore(new ScreeningResultCache.Stored(result("new", 1), now));
+
+        assertNull(cache.get("old"));
+        assertNotNull(cache.get("aging"));
+        Thread.sleep(700);
+        assertNull(cache.get("aging"));
+        assertNotNull(cache.get("new"));
+    }
+
+    @Test
+    void storeTimeSurvivesARestore() {
+        ScreeningResultCache cache = cache(10, 1, TimeUnit.HOURS);
+        long before = System.currentTimeMillis();
+        cache.put(result("a", 1));
+        ScreeningResultCache.Stored stored = cache.results().get(0);
+        assertTrue(stored.storedAtMillis() >= before);
+
+        // As a restart would: the snapshot's entry comes back with its original time
+        ScreeningResultCache restarted = cache(10, 1, TimeUnit.HOURS);
+        restarted.restore(stored);
+        assertEquals(List.of(stored), restarted.results());
+    }
+
+    private ScreeningResultCache cache(int maxEntries, long ttl, TimeUnit unit) {
+        return new ScreeningResultCache(maxEntries, ttl, unit, stored -> {
+            written.add(stored.result());
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    private static ScreeningResult result(String email, int score) {
+        return ScreeningResult.newBuilder().setCandidateEmail(email).setScore(score).build();
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.recruitment.storage;
+
+import com.google.protobuf.StringValue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventLogTest {
+
+    @TempDir
+    Path dir;
+
+    // What the log's owner holds in memory: appended events, or replayed ones after a reopen
+    private final List<String> state = new CopyOnWriteArrayList<>();
+
+    @Test
+    void replaysWhatWasAppended() throws Exception {
+        EventLog log = open(Long.MAX_VALUE);
+        append(log, "a", "b", "c");
+        log.close();
+
+        assertEquals(List.of("a", "b", "c"), reopen());
+    }
+
+    @Test
+    void tornTailIsTruncatedAndTheLogCarriesOn() throws Exception {
+        EventLog log = open(Long.MAX_VALUE);
+        append(log, "a", "b", "c");
+        log.close();
+        Path segment = onlySegment();
+        long size = Files.size(segment);
+        // A crash part way through writing the last record
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 2);
+        }
+
+        log = open(Long.MAX_VALUE);
+        assertEquals(List.of("a", "b"), state);
+        assertEquals(size - frame("c"), Files.size(segment));
+        append(log, "d");
+        log.close();
+
+        assertEquals(List.of("a", "b", "d"), reopen());
+    }
+
+    @Test
+    void checksumMismatchEndsTheSegment() throws Exception {
+        EventLog log = open(Long.MAX_VALUE);
+        append(log, "a", "b", "c");
+        log.close();
+        Path segment = onlySegment();
+        // The last byte of "b"'s payload
+        long position = frame("a") + frame("b") - 1;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer oneByte = ByteBuffer.allocate(1);
+            channel.read(oneByte, position);
+            oneByte.put(0, (byte) ~oneByte.get(0));
+            channel.write(oneByte.flip(), position);
+        }
+
+        assertEquals(List.of("a"), reopen());
+        assertEquals(frame("a"), Files.size(segment));
+    }
+
+    @Test
+    void snapshotReplacesOlderSegmentsAndNewerOnesReplayAfterIt() throws Exception {
+        EventLog log = open(2);
+        append(log, "a", "b");
+        long deadline = System.currentTimeMillis() + 5_000;
+        while ((long) log.stats().get("snapshots") == 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "no snapshot was written");
+            Thread.sleep(10);
+        }
+        append(log, "c");
+        log.close();
+
+        try (var files = Files.list(dir)) {
+            assertEquals(List.of("000000000001.snapshot", "000000000002.log", "LOCK"),
+                    files.map(file -> file.getFileName().toString()).sorted().toList());
+        }
+        assertEquals(List.of("a", "b", "c"), reopen());
+    }
+
+    @Test
+    void secondOpenOfTheSameDirectoryFails() throws Exception {
+        EventLog log = open(Long.MAX_VALUE);
+        IOException error = assertThrows(IOException.class, () -> open(Long.MAX_VALUE));
+        assertTrue(error.getMessage().contains("in use"));
+        log.close();
+
+        open(Long.MAX_VALUE).close();
+    }
+
+    @Test
+    void appendAfterCloseFails() throws Exception {
+        EventLog log = open(Long.MAX_VALUE);
+        append(log, "a");
+        log.close();
+
+        CompletionException error = assertThrows(CompletionException.class, () -> log.append(event("b")).join());
+        assertInstanceOf(IOException.class, error.getCause());
+        assertEquals(List.of("a"), reopen());
+    }
+
+    private EventLog open(long snapshotEvery) throws IOException {
+        state.clear();
+        return EventLog.open(dir, event -> state.add(StringValue.parseFrom(event).getValue()),
+                out -> {
+                    for (String value : state) {
+                        out.write(event(value));
+                    }
+                }, snapshotEvery, false);
+    }
+
+    private List<String> reopen() throws Exception {
+        open(Long.MAX_VALUE).close();
+        return List.copyOf(state);
+    }
+
+    // One at a time, each in memory before it is logged, as a service does
+    private void append(EventLog log, String... values) {
+        for (String value : values) {
+            state.add(value);
+            log.append(event(value)).join();
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        try (var files = Files.list(dir)) {
+            List<Path> segments = files.filter(file -> file.toString().endsWith(".log")).sorted().toList();
+            assertEquals(1, segments.size());
+            return segments.get(0);
+        }
+    }
+
+    private static StringValue event(String value) {
+        return StringValue.of(value);
+    }
+
+    private static long frame(String value) {
+        return 8 + event(value).getSerializedSize();
+    }
+}